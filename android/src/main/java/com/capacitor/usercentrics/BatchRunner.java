@@ -0,0 +1,237 @@
+package com.capacitor.usercentrics;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Runs a list of read operations one after another and resolves all their results at once.
+ * The batch is retried once when the consent state changes while it runs, so every result
+ * comes from the same state. A consents array returned by several operations is emitted
+ * once under shared.consents and referenced as "$shared.consents".
+ */
+public class BatchRunner {
+
+    public static final String SHARED_CONSENTS_REF = "$shared.consents";
+
+    private static final int MAX_ATTEMPTS = 2;
+
+    private final CapacitorUsercentrics implementation;
+    private final JSONArray ops;
+    private final CapacitorUsercentrics.CMPDataCallback callback;
+    private JSObject[] results;
+    private long stateVersion;
+    private int attempt = 0;
+
+    public BatchRunner(CapacitorUsercentrics implementation, JSONArray ops, CapacitorUsercentrics.CMPDataCallback callback) {
+        this.implementation = implementation;
+        this.ops = ops;
+        this.callback = callback;
+    }
+
+    public void run() {
+        attempt++;
+        results = new JSObject[ops.length()];
+        stateVersion = implementation.getStateVersion();
+        runOp(0);
+    }
+
+    private void runOp(int index) {
+        if (index == results.length) {
+            finish();
+            return;
+        }
+
+        JSONObject op = ops.optJSONObject(index);
+        String method = op != null ? op.optString("method", null) : null;
+        JSObject options = options(op);
+        CapacitorUsercentrics.CMPDataCallback next = new CapacitorUsercentrics.CMPDataCallback() {
+            @Override
+            public void onSuccess(JSObject data) {
+                JSObject result = new JSObject();
+                result.put("ok", true);
+                result.put("value", data != null ? data : new JSObject());
+                results[index] = result;
+                runOp(index + 1);
+            }
+
+            @Override
+            public void onError(String error) {
+                JSObject result = new JSObject();
+                result.put("ok", false);
+                result.put("error", error);
+                results[index] = result;
+                runOp(index + 1);
+            }
+        };
+
+        if (method == null) {
+            next.onError("method is required");
+            return;
+        }
+        dispatch(method, options, next);
+    }
+
+    private void dispatch(String method, JSObject options, CapacitorUsercentrics.CMPDataCallback next) {
+        switch (method) {
+            case "isReady":
+                implementation.isReady(new CapacitorUsercentrics.ReadyCallback() {
+                    @Override
+                    public void onSuccess(JSObject status) {
+                        next.onSuccess(status);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        next.onError(error);
+                    }
+                });
+                break;
+            case "getConsents":
+                implementation.getConsents(new CapacitorUsercentrics.ConsentsCallback() {
+                    @Override
+                    public void onSuccess(JSObject consents) {
+                        next.onSuccess(consents);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        next.onError(error);
+                    }
+                });
+                break;
+            case "saveUserSession":
+                implementation.saveUserSession(new CapacitorUsercentrics.SessionCallback() {
+                    @Override
+                    public void onSuccess(String controllerId) {
+                        JSObject result = new JSObject();
+                        result.put("controllerId", controllerId);
+                        next.onSuccess(result);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        next.onError(error);
+                    }
+                });
+                break;
+            case "getStartupTimings":
+                next.onSuccess(implementation.getStartupTimings());
+                break;
+            case "isConsentGiven":
+                implementation.isConsentGiven(options.getString("templateId"), next);
+                break;
+            case "getConsentStatuses":
+                implementation.getConsentStatuses(toJSArray(options.optJSONArray("templateIds")), next);
+                break;
+            case "getCMPData":
+                implementation.getCMPData(options, next);
+                break;
+            case "getTCFData":
+                implementation.getTCFData(options, next);
+                break;
+            case "queryTCFIndex":
+                implementation.queryTCFIndex(options.getString("index"), options.optInt("id", -1), next);
+                break;
+            case "hasVendorConsent":
+                implementation.hasVendorConsent(
+                    options.optInt("vendorId", -1),
+                    CapacitorUsercentrics.toIntArray(options.optJSONArray("purposeIds")),
+                    options.optBoolean("allowLegitimateInterest", false),
+                    next
+                );
+                break;
+            case "hasVendorConsents":
+                implementation.hasVendorConsents(
+                    toJSArray(options.optJSONArray("queries")),
+                    options.optBoolean("allowLegitimateInterest", false),
+                    next
+                );
+                break;
+            default:
+                // Mutations are deliberately not batchable, they change the snapshot the batch reads
+                next.onError("Unsupported batch method: " + method);
+        }
+    }
+
+    private void finish() {
+        if (implementation.getStateVersion() != stateVersion && attempt < MAX_ATTEMPTS) {
+            // The consent state moved underneath the batch, read everything again
+            run();
+            return;
+        }
+
+        JSArray list = new JSArray();
+        JSObject shared = new JSObject();
+        JSArray sharedConsents = sharedConsents();
+        if (sharedConsents != null) {
+            shared.put("consents", sharedConsents);
+        }
+        for (JSObject result : results) {
+            JSONObject value = result.optJSONObject("value");
+            if (sharedConsents != null && value != null && value.opt("consents") == sharedConsents) {
+                // Copy rather than edit, the value may be a cached object such as the ready status
+                result.put("value", withConsentsRef(value));
+            }
+            list.put(result);
+        }
+
+        JSObject response = new JSObject();
+        response.put("stateVersion", stateVersion);
+        response.put("shared", shared);
+        response.put("results", list);
+        callback.onSuccess(response);
+    }
+
+    /**
+     * The consents array instance returned by more than one operation, if any.
+     */
+    private JSArray sharedConsents() {
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (JSObject result : results) {
+            JSONObject value = result.optJSONObject("value");
+            Object consents = value != null ? value.opt("consents") : null;
+            if (consents instanceof JSArray && !seen.add(consents)) {
+                return (JSArray) consents;
+            }
+        }
+        return null;
+    }
+
+    private static JSObject withConsentsRef(JSONObject value) {
+        JSObject copy = new JSObject();
+        for (Iterator<String> it = value.keys(); it.hasNext(); ) {
+            String key = it.next();
+            copy.put(key, value.opt(key));
+        }
+        copy.put("consents", SHARED_CONSENTS_REF);
+        return copy;
+    }
+
+    private static JSObject options(JSONObject op) {
+        JSONObject options = op != null ? op.optJSONObject("options") : null;
+        JSObject result = new JSObject();
+        if (options == null) return result;
+        for (Iterator<String> it = options.keys(); it.hasNext(); ) {
+            String key = it.next();
+            result.put(key, options.opt(key));
+        }
+        return result;
+    }
+
+    private static JSArray toJSArray(JSONArray values) {
+        JSArray result = new JSArray();
+        if (values == null) return result;
+        for (int i = 0; i < values.length(); i++) {
+            result.put(values.opt(i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,362 @@
+package com.capacitor.usercentrics;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.usercentrics.sdk.UsercentricsCMPData;
+import com.usercentrics.sdk.v2.settings.data.UsercentricsCategory;
+import com.usercentrics.sdk.v2.settings.data.UsercentricsService;
+import com.usercentrics.sdk.v2.settings.data.UsercentricsSettings;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Maps {@link UsercentricsCMPData} section by section. Each section is serialized on first
+ * request and kept until the settings version changes.
+ */
+public class CMPDataMapper {
+
+    public static final Set<String> ALL_SECTIONS = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(
+        "settings", "services", "categories", "legalBasis"
+    )));
+
+    /**
+     * The parts of the CMP data the mapper reads, implemented over the SDK data by
+     * {@link #from(UsercentricsCMPData)}.
+     */
+    public interface Source {
+        Settings getSettings();
+        List<Service> getServices();
+        List<Category> getCategories();
+    }
+
+    public interface Settings {
+        String getSettingsId();
+        String getVersion();
+        String getLanguage();
+        List<String> getLanguagesAvailable();
+        String getPrivacyPolicyUrl();
+        String getImprintUrl();
+        boolean getTcf2Enabled();
+    }
+
+    public interface Service {
+        String getTemplateId();
+        String getVersion();
+        String getDataProcessor();
+        String getCategorySlug();
+        String getNameOfProcessingCompany();
+        String getDescriptionOfService();
+        Boolean isEssential();
+        Boolean isHidden();
+        Boolean getDefaultConsentStatus();
+        List<String> getLegalBasisList();
+    }
+
+    public interface Category {
+        String getCategorySlug();
+        String getLabel();
+        String getDescription();
+        boolean isEssential();
+        boolean isHidden();
+    }
+
+    private final Source cmpData;
+    private final String version;
+    private final Map<String, Object> sections = new ConcurrentHashMap<>();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+
+    public CMPDataMapper(UsercentricsCMPData cmpData) {
+        this(from(cmpData));
+    }
+
+    public CMPDataMapper(Source cmpData) {
+        this.cmpData = cmpData;
+        this.version = versionOf(cmpData);
+    }
+
+    /**
+     * Identifies the settings a snapshot was built from, changes whenever the published
+     * settings or the active language do.
+     */
+    public static String versionOf(UsercentricsCMPData cmpData) {
+        return versionOf(from(cmpData));
+    }
+
+    public static String versionOf(Source cmpData) {
+        Settings settings = cmpData.getSettings();
+        if (settings == null) return "";
+        return settings.getSettingsId() + '@' + settings.getVersion() + '/' + settings.getLanguage();
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Approximate heap held by the sections mapped so far, as UTF-16 size of their JSON.
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes.get();
+    }
+
+    /**
+     * Returns the serialized section, a JSObject for settings and legalBasis, a JSArray otherwise.
+     */
+    public Object section(String name) {
+        Object cached = sections.get(name);
+        if (cached != null) return cached;
+
+        Object mapped;
+        switch (name) {
+            case "settings":
+                mapped = mapSettings(cmpData.getSettings());
+                break;
+            case "services":
+                mapped = mapServices();
+                break;
+            case "categories":
+                mapped = mapCategories();
+                break;
+            case "legalBasis":
+                mapped = mapLegalBasis();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown CMP data section: " + name);
+        }
+        // Concurrent first requests may both map, the first stored copy wins
+        Object previous = sections.putIfAbsent(name, mapped);
+        if (previous != null) return previous;
+        estimatedBytes.addAndGet(2L * mapped.toString().length());
+        return mapped;
+    }
+
+    private static JSObject mapSettings(Settings settings) {
+        JSObject result = new JSObject();
+        if (settings == null) return result;
+        result.put("settingsId", settings.getSettingsId());
+        result.put("version", settings.getVersion());
+        result.put("language", settings.getLanguage());
+        result.put("languagesAvailable", new JSArray(TCFDataMapper.nonNull(settings.getLanguagesAvailable())));
+        result.put("privacyPolicyUrl", settings.getPrivacyPolicyUrl());
+        result.put("imprintUrl", settings.getImprintUrl());
+        result.put("tcf2Enabled", settings.getTcf2Enabled());
+        return result;
+    }
+
+    private JSArray mapServices() {
+        JSArray services = new JSArray();
+        for (Service service : TCFDataMapper.nonNull(cmpData.getServices())) {
+            JSObject obj = new JSObject();
+            obj.put("templateId", service.getTemplateId());
+            obj.put("version", service.getVersion());
+            obj.put("dataProcessor", service.getDataProcessor());
+            obj.put("categorySlug", service.getCategorySlug());
+            obj.put("nameOfProcessingCompany", service.getNameOfProcessingCompany());
+            obj.put("description", service.getDescriptionOfService());
+            putNullable(obj, "isEssential", service.isEssential());
+            putNullable(obj, "isHidden", service.isHidden());
+            putNullable(obj, "defaultConsentStatus", service.getDefaultConsentStatus());
+            services.put(obj);
+        }
+        return services;
+    }
+
+    private JSArray mapCategories() {
+        JSArray categories = new JSArray();
+        for (Category category : TCFDataMapper.nonNull(cmpData.getCategories())) {
+            JSObject obj = new JSObject();
+            obj.put("categorySlug", category.getCategorySlug());
+            obj.put("label", category.getLabel());
+            obj.put("description", category.getDescription());
+            obj.put("isEssential", category.isEssential());
+            obj.put("isHidden", category.isHidden());
+            categories.put(obj);
+        }
+        return categories;
+    }
+
+    private JSObject mapLegalBasis() {
+        // Keyed by templateId, the legal basis texts are the bulkiest part of a service
+        JSObject legalBasis = new JSObject();
+        for (Service service : TCFDataMapper.nonNull(cmpData.getServices())) {
+            legalBasis.put(service.getTemplateId(), new JSArray(TCFDataMapper.nonNull(service.getLegalBasisList())));
+        }
+        return legalBasis;
+    }
+
+    private static void putNullable(JSObject obj, String key, Boolean value) {
+        obj.put(key, value != null ? value : JSONObject.NULL);
+    }
+
+    public static Source from(UsercentricsCMPData cmpData) {
+        return new Source() {
+            @Override
+            public Settings getSettings() {
+                UsercentricsSettings settings = cmpData.getSettings();
+                return settings != null ? new SdkSettings(settings) : null;
+            }
+
+            @Override
+            public List<Service> getServices() {
+                List<Service> services = new ArrayList<>();
+                for (UsercentricsService service : TCFDataMapper.nonNull(cmpData.getServices())) {
+                    services.add(new SdkService(service));
+                }
+                return services;
+            }
+
+            @Override
+            public List<Category> getCategories() {
+                List<Category> categories = new ArrayList<>();
+                for (UsercentricsCategory category : TCFDataMapper.nonNull(cmpData.getCategories())) {
+                    categories.add(new SdkCategory(category));
+                }
+                return categories;
+            }
+        };
+    }
+
+    private static class SdkSettings implements Settings {
+        private final UsercentricsSettings settings;
+
+        SdkSettings(UsercentricsSettings settings) {
+            this.settings = settings;
+        }
+
+        @Override
+        public String getSettingsId() {
+            return settings.getSettingsId();
+        }
+
+        @Override
+        public String getVersion() {
+            return settings.getVersion();
+        }
+
+        @Override
+        public String getLanguage() {
+            return settings.getLanguage();
+        }
+
+        @Override
+        public List<String> getLanguagesAvailable() {
+            return settings.getLanguagesAvailable();
+        }
+
+        @Override
+        public String getPrivacyPolicyUrl() {
+            return settings.getPrivacyPolicyUrl();
+        }
+
+        @Override
+        public String getImprintUrl() {
+            return settings.getImprintUrl();
+        }
+
+        @Override
+        public boolean getTcf2Enabled() {
+            return settings.getTcf2Enabled();
+        }
+    }
+
+    private static class SdkService implements Service {
+        private final UsercentricsService service;
+
+        SdkService(UsercentricsService service) {
+            this.service = service;
+        }
+
+        @Override
+        public String getTemplateId() {
+            return service.getTemplateId();
+        }
+
+        @Override
+        public String getVersion() {
+            return service.getVersion();
+        }
+
+        @Override
+        public String getDataProcessor() {
+            return service.getDataProcessor();
+        }
+
+        @Override
+        public String getCategorySlug() {
+            return service.getCategorySlug();
+        }
+
+        @Override
+        public String getNameOfProcessingCompany() {
+            return service.getNameOfProcessingCompany();
+        }
+
+        @Override
+        public String getDescriptionOfService() {
+            return service.getDescriptionOfService();
+        }
+
+        @Override
+        public Boolean isEssential() {
+            return service.isEssential();
+        }
+
+        @Override
+        public Boolean isHidden() {
+            return service.isHidden();
+        }
+
+        @Override
+        public Boolean getDefaultConsentStatus() {
+            return service.getDefaultConsentStatus();
+        }
+
+        @Override
+        public List<String> getLegalBasisList() {
+            return service.getLegalBasisList();
+        }
+    }
+
+    private static class SdkCategory implements Category {
+        private final UsercentricsCategory category;
+
+        SdkCategory(UsercentricsCategory category) {
+            this.category = category;
+        }
+
+        @Override
+        public String getCategorySlug() {
+            return category.getCategorySlug();
+        }
+
+        @Override
+        public String getLabel() {
+            return category.getLabel();
+        }
+
+        @Override
+        public String getDescription() {
+            return category.getDescription();
+        }
+
+        @Override
+        public boolean isEssential() {
+            return category.isEssential();
+        }
+
+        @Override
+        public boolean isHidden() {
+            return category.isHidden();
+        }
+    }
+}
@@ -2,30 +2,280 @@ package com.capacitor.usercentrics;
 
 import android.app.Activity;
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.JSArray;
 import com.getcapacitor.Logger;
 import com.usercentrics.sdk.*;
-import com.usercentrics.sdk.errors.UsercentricsError;
 import com.usercentrics.sdk.models.common.UsercentricsLoggerLevel;
 import com.usercentrics.sdk.models.settings.UsercentricsConsentType;
 import com.usercentrics.sdk.services.tcf.interfaces.TCFData;
+import com.usercentrics.sdk.services.tcf.interfaces.TCFVendor;
 
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class CapacitorUsercentrics {
 
-    private UsercentricsSDK usercentricsSDK;
+    private static final int MAX_CACHED_SESSIONS = 8;
+    // How long TCF reads wait for the SDK to restore a session answered from the cache
+    private static final long DEFAULT_RESTORE_TIMEOUT_MILLIS = 10_000;
+
+    private final UsercentricsBackend usercentricsSDK;
+    // Application context for SDK and storage work, the Activity is only held weakly for banners
     private Context context;
+    private WeakReference<Activity> activityRef = new WeakReference<>(null);
+    private final PluginMetrics metrics = new PluginMetrics();
+    private final ConsentSerializer consentSerializer = new ConsentSerializer(metrics);
+    private final ConsentSerializer.ConsentSource sdkConsentSource = this::readSdkConsents;
+    private final ConsentStore consentStore = new ConsentStore();
+    private final Object tcfLock = new Object();
+    private TCFData tcfSnapshot;
+    private long tcfSnapshotVersion = -1;
+    // TCF reads issued while a session answered from the cache is still being restored
+    private List<TCFSnapshotCallback> tcfAfterRestore;
+    private ScheduledFuture<?> tcfRestoreTimeout;
+    private volatile long restoreTimeoutMillis = DEFAULT_RESTORE_TIMEOUT_MILLIS;
+    private final ScheduledExecutorService restoreWatchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "UsercentricsRestoreWatchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private TCString decodedTCString;
+    private long decodedTCStringVersion = -1;
+    private final TCFIndex.Cache tcfIndex = new TCFIndex.Cache();
+    private final Object cmpDataLock = new Object();
+    private CMPDataMapper cmpDataMapper;
+    private final ConfigurationCache configurationCache = new ConfigurationCache();
+    private final ConsentChangeTracker consentChangeTracker = new ConsentChangeTracker();
+    private ConsentChangeListener consentChangeListener;
+    private final ConsentApplierRegistry consentApplierRegistry = new ConsentApplierRegistry();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final SdkInitScheduler sdkInitScheduler = new SdkInitScheduler(mainHandler::post);
+    private final SaveConsentBatcher saveConsentBatcher = new SaveConsentBatcher(this::persistConsents);
+    private final StartupCoordinator startupCoordinator = new StartupCoordinator();
+    private final Object readyLock = new Object();
+    private final List<ReadyCallback> readyWaiters = new ArrayList<>();
+    private JSObject readyStatus;
+    private long readyStatusVersion;
+    private final Object bannerLock = new Object();
+    // The banner holds its Activity strongly, releaseActivity drops it with the Activity
+    private UsercentricsBanner banner;
+    private WeakReference<Activity> bannerActivity = new WeakReference<>(null);
+    private final List<BannerCallback> pendingBannerCallbacks = new ArrayList<>();
+    private SessionCache sessionCache;
+    private ExecutorService sessionCacheWriter;
+    private ScheduledExecutorService consentLogSyncer;
+    private ConsentBootstrap consentBootstrap;
+    private ConsentWriteAheadLog consentLog;
+    private volatile boolean consentLogReplayPending = false;
 
     public CapacitorUsercentrics() {
+        this(new UsercentricsSdkBackend());
+    }
+
+    CapacitorUsercentrics(UsercentricsBackend backend) {
         this.context = null;
+        this.usercentricsSDK = backend;
+
+        // Default appliers, host apps can override them through the registry
+        consentApplierRegistry.register("diWdt4yLB", this::applyFirebaseConsent); // Google Analytics for Firebase Template ID
+        consentApplierRegistry.register("x-XXXxXx", this::applyUnityAdsConsent); // Example: Unity Ads Template ID
+        consentApplierRegistry.register("x-xXX-Xx", this::applyAppLovinConsent); // Example: AppLovin Template ID
     }
 
+    /**
+     * Sets the context the SDK and the local stores work with. Only its application context
+     * is kept; an Activity is additionally remembered, weakly, for showing banners.
+     */
     public void setContext(Context context) {
-        this.context = context;
+        if (context instanceof Activity) {
+            setActivity((Activity) context);
+        }
+        if (context == null) return;
+        Context appContext = context.getApplicationContext();
+        if (appContext == null) {
+            appContext = context;
+        }
+        this.context = appContext;
+        // Everything built here outlives the Activity, so it only ever sees the application context
+        if (sessionCache == null) {
+            sessionCacheWriter = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "UsercentricsSessionCache");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sessionCache = new SessionCache(new File(appContext.getNoBackupFilesDir(), "usercentrics-sessions"), MAX_CACHED_SESSIONS, sessionCacheWriter);
+        }
+        if (consentBootstrap == null) {
+            consentBootstrap = new ConsentBootstrap(appContext);
+        }
+        if (consentLog == null) {
+            consentLogSyncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "UsercentricsConsentLog");
+                thread.setDaemon(true);
+                return thread;
+            });
+            consentLog = new ConsentWriteAheadLog(new File(appContext.getNoBackupFilesDir(), "usercentrics-consent.wal"), consentLogSyncer);
+        }
+    }
+
+    /**
+     * Stops every background thread the implementation started and syncs the consent log.
+     * Called when the plugin is destroyed, the instance must not be used afterwards.
+     */
+    public void shutdown() {
+        startupCoordinator.shutdown();
+        saveConsentBatcher.shutdown();
+        consentApplierRegistry.shutdown();
+        sdkInitScheduler.shutdown();
+        restoreWatchdog.shutdownNow();
+        if (sessionCacheWriter != null) {
+            // Pending session writes still complete
+            sessionCacheWriter.shutdown();
+        }
+        syncConsentLog();
+        if (consentLogSyncer != null) {
+            consentLogSyncer.shutdownNow();
+        }
+    }
+
+    public void setActivity(Activity activity) {
+        synchronized (bannerLock) {
+            activityRef = new WeakReference<>(activity);
+        }
+    }
+
+    /**
+     * Lets go of everything tied to a destroyed Activity: the weak reference, the banner built
+     * for it and banner calls still waiting for a user response, which are rejected.
+     */
+    public void releaseActivity(Activity destroyed) {
+        List<BannerCallback> abandoned;
+        synchronized (bannerLock) {
+            if (activityRef.get() == destroyed) {
+                activityRef = new WeakReference<>(null);
+            }
+            if (bannerActivity.get() == destroyed) {
+                banner = null;
+                bannerActivity = new WeakReference<>(null);
+            }
+            abandoned = new ArrayList<>(pendingBannerCallbacks);
+            pendingBannerCallbacks.clear();
+        }
+        for (BannerCallback callback : abandoned) {
+            callback.onError("Activity destroyed before the banner was answered");
+        }
+    }
+
+    // The Activity banners attach to, null once it is gone or on its way out
+    private Activity currentActivity() {
+        Activity current;
+        synchronized (bannerLock) {
+            current = activityRef.get();
+        }
+        return current != null && !current.isFinishing() && !current.isDestroyed() ? current : null;
+    }
+
+    private void addPendingBanner(BannerCallback callback) {
+        synchronized (bannerLock) {
+            pendingBannerCallbacks.add(callback);
+        }
+    }
+
+    // False when the call was already rejected because its Activity went away
+    private boolean takePendingBanner(BannerCallback callback) {
+        synchronized (bannerLock) {
+            return pendingBannerCallbacks.remove(callback);
+        }
+    }
+
+    /**
+     * Forces appended consent decisions to disk, called when the app goes to background.
+     */
+    public void syncConsentLog() {
+        ConsentWriteAheadLog log = consentLog;
+        if (log != null) {
+            log.sync();
+        }
+    }
+
+    /**
+     * Script defining the last known consent state as a page global, null before the first
+     * consent state was stored.
+     */
+    public String getConsentBootstrapScript() {
+        ConsentBootstrap bootstrap = consentBootstrap;
+        return bootstrap != null ? bootstrap.script() : null;
+    }
+
+    private void storeBootstrap(List<UsercentricsServiceConsent> consents) {
+        ConsentBootstrap bootstrap = consentBootstrap;
+        if (bootstrap != null && consents != null) {
+            bootstrap.store(usercentricsSDK.getControllerId(), consents);
+        }
+    }
+
+    void setRestoreTimeoutMillis(long restoreTimeoutMillis) {
+        this.restoreTimeoutMillis = restoreTimeoutMillis;
+    }
+
+    void setSessionCache(SessionCache sessionCache) {
+        this.sessionCache = sessionCache;
+    }
+
+    public void setConsentChangeListener(ConsentChangeListener listener) {
+        this.consentChangeListener = listener;
+    }
+
+    /**
+     * Runs batched saves once their window closed. The plugin passes its serial lane so they
+     * can't interleave with reset, acceptAll or denyAll.
+     */
+    public void setMutationExecutor(Executor executor) {
+        saveConsentBatcher.setFlushExecutor(executor);
+    }
+
+    public ConfigurationCache getConfigurationCache() {
+        return configurationCache;
+    }
+
+    public PluginMetrics getMetrics() {
+        return metrics;
+    }
+
+    long getStateVersion() {
+        return consentSerializer.getStateVersion();
+    }
+
+    /**
+     * Runs read operations against one consent state and resolves all results together.
+     */
+    public void batch(JSONArray ops, CMPDataCallback callback) {
+        new BatchRunner(this, ops, callback).run();
+    }
+
+    public ConsentApplierRegistry getConsentApplierRegistry() {
+        return consentApplierRegistry;
+    }
+
+    public SdkInitScheduler getSdkInitScheduler() {
+        return sdkInitScheduler;
     }
 
     // Callback interfaces
@@ -55,11 +305,81 @@ public class CapacitorUsercentrics {
     }
 
     public interface SessionCallback {
-        void onSuccess(String session);
+        void onSuccess(String controllerId);
+        void onError(String error);
+    }
+
+    private interface TCFSnapshotCallback {
+        void onSnapshot(TCFData tcfData, long version);
+        void onError(String error);
+    }
+
+    private interface TCStringCallback {
+        void onDecoded(TCString tcString);
         void onError(String error);
     }
 
+    public interface ConsentChangeListener {
+        void onConsentChanged(JSObject event);
+    }
+
+    /**
+     * Publishes a new consent state of the current controller: emits the diff and refreshes
+     * its session cache and bootstrap entries.
+     */
+    private void consentsChanged(List<UsercentricsServiceConsent> consents) {
+        // Stored first so consentChanged listeners already see it in the bootstrap script
+        storeBootstrap(consents);
+        notifyConsentChange(consentChangeTracker.update(consents));
+        sdkInitScheduler.onConsents(consents);
+        SessionCache cache = sessionCache;
+        if (cache != null) {
+            cache.put(usercentricsSDK.getControllerId(), consents);
+        }
+    }
+
+    private void notifyConsentChange(JSObject event) {
+        ConsentChangeListener listener = consentChangeListener;
+        if (event != null && listener != null) {
+            listener.onConsentChanged(event);
+        }
+    }
+
     public void configure(JSObject options, Callback callback) {
+        configure(options, false, callback);
+    }
+
+    /**
+     * Starts initialization as early as plugin load from the capacitor.config options and
+     * warms the SDK up, later configure/isReady calls attach to this work.
+     */
+    public void preinitialize(JSObject options) {
+        configure(options, true, new Callback() {
+            @Override
+            public void onSuccess() {
+                isReady(new ReadyCallback() {
+                    @Override
+                    public void onSuccess(JSObject status) {}
+
+                    @Override
+                    public void onError(String error) {
+                        Logger.warn("Usercentrics preinitialize isReady error: " + error);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(String error) {
+                Logger.warn("Usercentrics preinitialize error: " + error);
+            }
+        });
+    }
+
+    public JSObject getStartupTimings() {
+        return startupCoordinator.getTimings();
+    }
+
+    private void configure(JSObject options, boolean preinitialize, Callback callback) {
         try {
             if (context == null) {
                 callback.onError("Context not set");
@@ -72,125 +392,252 @@ public class CapacitorUsercentrics {
                 return;
             }
 
-            // Use the simple constructor as shown in the documentation
-            UsercentricsOptions usercentricsOptions = new UsercentricsOptions(settingsId);
-            
-            // Apply additional options if provided
-            if (options.has("defaultLanguage")) {
-                usercentricsOptions.setDefaultLanguage(options.getString("defaultLanguage"));
-            }
-            if (options.has("version")) {
-                usercentricsOptions.setVersion(options.getString("version"));
-            }
-            if (options.has("timeoutMillis")) {
-                usercentricsOptions.setTimeoutMillis(options.getInt("timeoutMillis"));
-            }
-            if (options.has("loggerLevel")) {
-                String level = options.getString("loggerLevel");
-                switch (level) {
-                    case "debug":
-                        usercentricsOptions.setLoggerLevel(UsercentricsLoggerLevel.DEBUG);
-                        break;
-                    case "warning":
-                        usercentricsOptions.setLoggerLevel(UsercentricsLoggerLevel.WARNING);
-                        break;
-                    case "error":
-                        usercentricsOptions.setLoggerLevel(UsercentricsLoggerLevel.ERROR);
-                        break;
-                    case "none":
-                        usercentricsOptions.setLoggerLevel(UsercentricsLoggerLevel.NONE);
-                        break;
-                }
-            }
-            if (options.has("rulesetId")) {
-                usercentricsOptions.setRuleSetId(options.getString("rulesetId"));
-            }
-            if (options.has("consentMediation")) {
-                usercentricsOptions.setConsentMediation(options.getBool("consentMediation"));
-            }
+            // Initialization runs on the coordinator's thread, identical configurations share one run
+            startupCoordinator.configure(configurationKey(options), preinitialize, coordinator -> {
+                UsercentricsOptions usercentricsOptions = buildOptions(settingsId, options);
+                coordinator.markOptionsParsed();
+                // The SDK is a singleton and has to be initialized on every switch, what was
+                // prepared for this configuration before is picked up again from the cache
+                configurationCache.activate(ConfigurationCache.keyOf(options));
 
-            Usercentrics.initialize(context, usercentricsOptions);
-            
-            callback.onSuccess();
+                long sdkStart = metrics.start();
+                usercentricsSDK.initialize(context, usercentricsOptions);
+                metrics.record("sdk.initialize", sdkStart, false);
+                // Decisions the SDK never confirmed are replayed once it is ready
+                consentLogReplayPending = true;
+                consentSerializer.invalidate();
+                invalidateCMPData();
+                // Settings or language may differ, a prepared banner would be stale
+                releaseBanner();
+                coordinator.markInitialized();
+            }, callback);
         } catch (Exception e) {
             Logger.error("Usercentrics configure error", e);
             callback.onError(e.getMessage());
         }
     }
 
+    private static String configurationKey(JSObject options) {
+        return options.getString("settingsId") + '|' +
+            options.getString("rulesetId") + '|' +
+            options.getString("version") + '|' +
+            options.getString("defaultLanguage") + '|' +
+            options.opt("timeoutMillis") + '|' +
+            options.getString("loggerLevel") + '|' +
+            options.opt("consentMediation");
+    }
+
+    private static UsercentricsOptions buildOptions(String settingsId, JSObject options) {
+        // Use the simple constructor as shown in the documentation
+        UsercentricsOptions usercentricsOptions = new UsercentricsOptions(settingsId);
+        
+        // Apply additional options if provided
+        if (options.has("defaultLanguage")) {
+            usercentricsOptions.setDefaultLanguage(options.getString("defaultLanguage"));
+        }
+        if (options.has("version")) {
+            usercentricsOptions.setVersion(options.getString("version"));
+        }
+        if (options.has("timeoutMillis")) {
+            usercentricsOptions.setTimeoutMillis(options.getInt("timeoutMillis"));
+        }
+        if (options.has("loggerLevel")) {
+            String level = options.getString("loggerLevel");
+            switch (level) {
+                case "debug":
+                    usercentricsOptions.setLoggerLevel(UsercentricsLoggerLevel.DEBUG);
+                    break;
+                case "warning":
+                    usercentricsOptions.setLoggerLevel(UsercentricsLoggerLevel.WARNING);
+                    break;
+                case "error":
+                    usercentricsOptions.setLoggerLevel(UsercentricsLoggerLevel.ERROR);
+                    break;
+                case "none":
+                    usercentricsOptions.setLoggerLevel(UsercentricsLoggerLevel.NONE);
+                    break;
+            }
+        }
+        if (options.has("rulesetId")) {
+            usercentricsOptions.setRuleSetId(options.getString("rulesetId"));
+        }
+        if (options.has("consentMediation")) {
+            usercentricsOptions.setConsentMediation(options.getBool("consentMediation"));
+        }
+        return usercentricsOptions;
+    }
+
     public void isReady(ReadyCallback callback) {
-        try {
+        // Attach to a configure that is still running instead of racing it
+        startupCoordinator.whenConfigured(new Callback() {
+            @Override
+            public void onSuccess() {
+                requestReady(callback);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
+    }
 
-            Usercentrics.isReady(
-                (UsercentricsReadyStatus status) -> {
-                    usercentricsSDK = Usercentrics.getInstance();
+    private void requestReady(ReadyCallback callback) {
+        JSObject cached;
+        synchronized (readyLock) {
+            // The cached status is valid as long as the consent state version is unchanged
+            cached = readyStatus != null && readyStatusVersion == consentSerializer.getStateVersion() ? readyStatus : null;
+            if (cached == null) {
+                readyWaiters.add(callback);
+                if (readyWaiters.size() > 1) {
+                    // Another caller already has a request in flight
+                    return;
+                }
+            }
+        }
+        if (cached != null) {
+            callback.onSuccess(cached);
+            return;
+        }
+
+        try {
+            long version = consentSerializer.getStateVersion();
+            long sdkStart = metrics.start();
+            usercentricsSDK.isReady(new UsercentricsBackend.ReadyListener() {
+                @Override
+                public void onReady(boolean shouldCollectConsent, List<UsercentricsServiceConsent> sdkConsents) {
+                    metrics.record("sdk.isReady", sdkStart, false);
                     JSObject result = new JSObject();
-                    result.put("shouldCollectConsent", status.getShouldCollectConsent());
+                    List<UsercentricsServiceConsent> consents = sdkConsents;
+                    boolean collectConsent = shouldCollectConsent;
+                    List<UsercentricsServiceConsent> replayed = replayConsentLog(result);
+                    if (replayed != null) {
+                        // The user already decided, the SDK just never confirmed it
+                        consents = replayed;
+                        collectConsent = false;
+                    }
+                    result.put("shouldCollectConsent", collectConsent);
                     result.put("controllerId", usercentricsSDK.getControllerId());
-                    
-                    // Convert consents list to array of objects
-                    JSArray consentsArr = new JSArray();
-                    for (UsercentricsServiceConsent consent : status.getConsents()) {
-                        JSObject consentObj = new JSObject();
-                        consentObj.put("templateId", consent.getTemplateId());
-                        consentObj.put("status", consent.getStatus());
-                        consentObj.put("dataProcessor", consent.getDataProcessor());
-                        consentObj.put("version", consent.getVersion());
-                        consentObj.put("isEssential", consent.isEssential());
-                        consentsArr.put(consentObj);
+                    boolean current = version == consentSerializer.getStateVersion();
+                    result.put("consents", current
+                        ? consentSerializer.serialize(consents)
+                        : ConsentSerializer.toJSArray(consents));
+                    consentChangeTracker.seed(consents);
+                    startupCoordinator.markReady();
+                    storeBootstrap(consents);
+                    sdkInitScheduler.onConsents(consents);
+
+                    for (ReadyCallback waiter : completeReady(result, version)) {
+                        waiter.onSuccess(result);
                     }
-                    result.put("consents", consentsArr);
-                    
-                    callback.onSuccess(result);
-                    return null;
-                },
-                (UsercentricsError error) -> {
-                    callback.onError(error.getMessage());
+                }
 
-                    return null;
+                @Override
+                public void onError(String error) {
+                    metrics.record("sdk.isReady", sdkStart, true);
+                    for (ReadyCallback waiter : completeReady(null, version)) {
+                        waiter.onError(error);
+                    }
                 }
-            );
+            });
         } catch (Exception e) {
             Logger.error("Usercentrics isReady error", e);
-            callback.onError(e.getMessage());
+            for (ReadyCallback waiter : completeReady(null, 0)) {
+                waiter.onError(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Replays the unacknowledged consent log entries as one batch: the last accept/deny-all,
+     * then the individual decisions logged after it. Returns the resulting consents, or null
+     * when there was nothing to replay or the replay failed.
+     */
+    private List<UsercentricsServiceConsent> replayConsentLog(JSObject result) {
+        ConsentWriteAheadLog log = consentLog;
+        if (log == null || !consentLogReplayPending) return null;
+        consentLogReplayPending = false;
+
+        ConsentWriteAheadLog.Replay replay = ConsentWriteAheadLog.merge(log.pending());
+        if (replay.isEmpty()) return null;
+
+        long start = metrics.start();
+        List<UsercentricsServiceConsent> consents = null;
+        try {
+            if (replay.bulk != null) {
+                consents = replay.bulk == ConsentWriteAheadLog.ACCEPT_ALL
+                    ? usercentricsSDK.acceptAll(UsercentricsConsentType.EXPLICIT)
+                    : usercentricsSDK.denyAll(UsercentricsConsentType.EXPLICIT);
+            }
+            if (!replay.decisions.isEmpty()) {
+                consents = usercentricsSDK.saveDecisions(replay.toDecisions(), UsercentricsConsentType.EXPLICIT);
+            }
+            metrics.record("consentLog.replay", start, false);
+        } catch (Exception e) {
+            // Entries stay in the log for the next configure
+            metrics.record("consentLog.replay", start, true);
+            Logger.error("Usercentrics consent log replay error", e);
+            return null;
+        }
+
+        for (long seq : replay.seqs) {
+            log.acknowledge(seq);
+        }
+        try {
+            log.compact();
+        } catch (IOException e) {
+            Logger.error("Usercentrics consent log compact error", e);
+        }
+        consentSerializer.invalidate();
+        applyConsentToSDKs(consents, false);
+        result.put("replayed", replay.seqs.size());
+        return consents;
+    }
+
+    private List<ReadyCallback> completeReady(JSObject result, long version) {
+        synchronized (readyLock) {
+            // Don't cache a status that a state change made stale while it was in flight
+            if (result != null && version == consentSerializer.getStateVersion()) {
+                readyStatus = result;
+                readyStatusVersion = version;
+            }
+            List<ReadyCallback> waiters = new ArrayList<>(readyWaiters);
+            readyWaiters.clear();
+            return waiters;
         }
     }
 
     public void showBanner(BannerCallback callback) {
         try {
-            if (usercentricsSDK == null) {
+            if (!usercentricsSDK.isAvailable()) {
                 callback.onError("Usercentrics not configured");
                 return;
             }
 
-            if (!(context instanceof Activity)) {
-                callback.onError("Context must be an Activity to show banner");
+            Activity activity = currentActivity();
+            if (activity == null) {
+                callback.onError("No Activity available to show banner");
                 return;
             }
 
-            Activity activity = (Activity) context;
+            addPendingBanner(callback);
             activity.runOnUiThread(() -> {
-                UsercentricsBanner banner = new UsercentricsBanner(activity, null);
+                UsercentricsBanner banner = obtainBanner(activity);
                 banner.showFirstLayer((UsercentricsConsentUserResponse response) -> {
                         JSObject result = new JSObject();
                         
                         String userInteraction = response.getUserInteraction().toString();
                         result.put("userInteraction", userInteraction);
                         result.put("controllerId", response.getControllerId());
-                        
-                        JSArray consentsArr = new JSArray();
-                        for (UsercentricsServiceConsent consent : response.getConsents()) {
-                            JSObject consentObj = new JSObject();
-                            consentObj.put("templateId", consent.getTemplateId());
-                            consentObj.put("status", consent.getStatus());
-                            consentObj.put("dataProcessor", consent.getDataProcessor());
-                            consentObj.put("version", consent.getVersion());
-                            consentObj.put("isEssential", consent.isEssential());
-                            consentsArr.put(consentObj);
+
+                        // The user response may have changed the consent state
+                        consentSerializer.invalidate();
+                        result.put("consents", consentSerializer.serialize(response.getConsents()));
+
+                        if (takePendingBanner(callback)) {
+                            callback.onSuccess(result);
                         }
-                        result.put("consents", consentsArr);
-                        
-                        callback.onSuccess(result);
+                        consentsChanged(response.getConsents());
                         return null;
                     });
             });
@@ -202,39 +649,35 @@ public class CapacitorUsercentrics {
 
     public void showSecondLayer(BannerCallback callback) {
         try {
-            if (usercentricsSDK == null) {
+            if (!usercentricsSDK.isAvailable()) {
                 callback.onError("Usercentrics not configured");
                 return;
             }
 
-            if (!(context instanceof Activity)) {
-                callback.onError("Context must be an Activity to show banner");
+            Activity activity = currentActivity();
+            if (activity == null) {
+                callback.onError("No Activity available to show banner");
                 return;
             }
 
-            Activity activity = (Activity) context;
+            addPendingBanner(callback);
             activity.runOnUiThread(() -> {
-                UsercentricsBanner banner = new UsercentricsBanner(activity, null);
+                UsercentricsBanner banner = obtainBanner(activity);
                 banner.showSecondLayer((UsercentricsConsentUserResponse response) -> {
                         JSObject result = new JSObject();
                         
                         String userInteraction = response.getUserInteraction().toString();
                         result.put("userInteraction", userInteraction);
                         result.put("controllerId", response.getControllerId());
-                        
-                        JSArray consentsArr = new JSArray();
-                        for (UsercentricsServiceConsent consent : response.getConsents()) {
-                            JSObject consentObj = new JSObject();
-                            consentObj.put("templateId", consent.getTemplateId());
-                            consentObj.put("status", consent.getStatus());
-                            consentObj.put("dataProcessor", consent.getDataProcessor());
-                            consentObj.put("version", consent.getVersion());
-                            consentObj.put("isEssential", consent.isEssential());
-                            consentsArr.put(consentObj);
+
+                        // The user response may have changed the consent state
+                        consentSerializer.invalidate();
+                        result.put("consents", consentSerializer.serialize(response.getConsents()));
+
+                        if (takePendingBanner(callback)) {
+                            callback.onSuccess(result);
                         }
-                        result.put("consents", consentsArr);
-                        
-                        callback.onSuccess(result);
+                        consentsChanged(response.getConsents());
                         return null;
                     });
             });
@@ -244,15 +687,81 @@ public class CapacitorUsercentrics {
         }
     }
 
+    public void preloadBanner(Callback callback) {
+        try {
+            if (!usercentricsSDK.isAvailable()) {
+                callback.onError("Usercentrics not configured");
+                return;
+            }
+
+            Activity activity = currentActivity();
+            if (activity == null) {
+                callback.onError("No Activity available to show banner");
+                return;
+            }
+
+            activity.runOnUiThread(() -> {
+                try {
+                    obtainBanner(activity);
+                    callback.onSuccess();
+                } catch (Exception e) {
+                    Logger.error("Usercentrics preloadBanner error", e);
+                    callback.onError(e.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            Logger.error("Usercentrics preloadBanner error", e);
+            callback.onError(e.getMessage());
+        }
+    }
+
+    /**
+     * Drops the prepared banner, e.g. after a configuration or language change.
+     */
+    public void releaseBanner() {
+        synchronized (bannerLock) {
+            banner = null;
+            bannerActivity = new WeakReference<>(null);
+        }
+    }
+
+    // Must be called on the UI thread, the same instance serves first and second layer
+    private UsercentricsBanner obtainBanner(Activity activity) {
+        synchronized (bannerLock) {
+            if (banner == null || bannerActivity.get() != activity) {
+                banner = new UsercentricsBanner(activity, null);
+                bannerActivity = new WeakReference<>(activity);
+            }
+            return banner;
+        }
+    }
+
     public void reset(Callback callback) {
         try {
-            if (usercentricsSDK == null) {
+            if (!usercentricsSDK.isAvailable()) {
                 callback.onError("Usercentrics not configured");
                 return;
             }
 
-            Usercentrics.reset();
+            usercentricsSDK.reset();
+            // The SDK has to be initialized again, even for the configuration it had before
+            startupCoordinator.reset();
+            releaseBanner();
+            // Saves still waiting for their batch window belong to the previous user
+            saveConsentBatcher.clear("Usercentrics was reset before the consent was saved");
+            CompactConsent.clearPool();
+            consentSerializer.invalidate();
+            consentApplierRegistry.clearAppliedState();
+            sdkInitScheduler.clearConsents();
+            if (consentBootstrap != null) {
+                consentBootstrap.clear();
+            }
+            if (consentLog != null) {
+                // Decisions made before the reset must not come back on the next start
+                consentLog.clear();
+            }
             callback.onSuccess();
+            notifyConsentChange(consentChangeTracker.clear());
         } catch (Exception e) {
             Logger.error("Usercentrics reset error", e);
             callback.onError(e.getMessage());
@@ -261,24 +770,13 @@ public class CapacitorUsercentrics {
 
     public void getConsents(ConsentsCallback callback) {
         try {
-            if (usercentricsSDK == null) {
+            if (!usercentricsSDK.isAvailable()) {
                 callback.onError("Usercentrics not configured");
                 return;
             }
 
-            List<UsercentricsServiceConsent> consents = usercentricsSDK.getConsents();
-            JSArray consentsArr = new JSArray();
-            
-            for (UsercentricsServiceConsent consent : consents) {
-                JSObject consentObj = new JSObject();
-                consentObj.put("templateId", consent.getTemplateId());
-                consentObj.put("status", consent.getStatus());
-                consentObj.put("dataProcessor", consent.getDataProcessor());
-                consentObj.put("version", consent.getVersion());
-                consentObj.put("isEssential", consent.isEssential());
-                consentsArr.put(consentObj);
-            }
-            
+            JSArray consentsArr = consentSerializer.serialize(sdkConsentSource);
+
             JSObject result = new JSObject();
             result.put("consents", consentsArr);
             callback.onSuccess(result);
@@ -288,17 +786,75 @@ public class CapacitorUsercentrics {
         }
     }
 
-    public void getCMPData(CMPDataCallback callback) {
+    private List<UsercentricsServiceConsent> readSdkConsents() {
+        long sdkStart = metrics.start();
+        List<UsercentricsServiceConsent> consents = usercentricsSDK.getConsents();
+        metrics.record("sdk.getConsents", sdkStart, false);
+        return consents;
+    }
+
+    public void isConsentGiven(String templateId, CMPDataCallback callback) {
         try {
-            if (usercentricsSDK == null) {
+            if (!usercentricsSDK.isAvailable()) {
                 callback.onError("Usercentrics not configured");
                 return;
             }
 
-            Object cmpData = usercentricsSDK.getCMPData();
+            consentStore.ensureVersion(consentSerializer.getStateVersion(), sdkConsentSource);
             JSObject result = new JSObject();
+            result.put("given", consentStore.isConsentGiven(templateId));
+            result.put("known", consentStore.isKnown(templateId));
+            callback.onSuccess(result);
+        } catch (Exception e) {
+            Logger.error("Usercentrics isConsentGiven error", e);
+            callback.onError(e.getMessage());
+        }
+    }
+
+    public void getConsentStatuses(JSArray templateIds, CMPDataCallback callback) {
+        try {
+            if (!usercentricsSDK.isAvailable()) {
+                callback.onError("Usercentrics not configured");
+                return;
+            }
+
+            consentStore.ensureVersion(consentSerializer.getStateVersion(), sdkConsentSource);
+            callback.onSuccess(consentStore.getStatuses(templateIds));
+        } catch (Exception e) {
+            Logger.error("Usercentrics getConsentStatuses error", e);
+            callback.onError(e.getMessage());
+        }
+    }
+
+    public void getCMPData(JSObject options, CMPDataCallback callback) {
+        try {
+            if (!usercentricsSDK.isAvailable()) {
+                callback.onError("Usercentrics not configured");
+                return;
+            }
+
+            Set<String> sections = TCFDataMapper.fieldSet(options.optJSONArray("sections"), CMPDataMapper.ALL_SECTIONS);
+            for (String section : sections) {
+                if (!CMPDataMapper.ALL_SECTIONS.contains(section)) {
+                    callback.onError("Unknown CMP data section: " + section);
+                    return;
+                }
+            }
+
+            CMPDataMapper mapper = obtainCMPDataMapper();
+            long cachedBytes = mapper.getEstimatedBytes();
+            JSObject cmpData = new JSObject();
+            for (String section : sections) {
+                cmpData.put(section, mapper.section(section));
+            }
+            if (mapper.getEstimatedBytes() != cachedBytes) {
+                // Newly mapped sections count against the configuration cache limits
+                configurationCache.onGrown();
+            }
+            JSObject result = new JSObject();
+            result.put("version", mapper.getVersion());
             result.put("cmpData", cmpData);
-            
+
             callback.onSuccess(result);
         } catch (Exception e) {
             Logger.error("Usercentrics getCMPData error", e);
@@ -306,112 +862,198 @@ public class CapacitorUsercentrics {
         }
     }
 
-    public void restoreUserSession(String userSession, Callback callback) {
+    private CMPDataMapper obtainCMPDataMapper() {
+        synchronized (cmpDataLock) {
+            if (cmpDataMapper != null) return cmpDataMapper;
+        }
+
+        long sdkStart = metrics.start();
+        UsercentricsCMPData cmpData = usercentricsSDK.getCMPData();
+        metrics.record("sdk.getCMPData", sdkStart, false);
+
+        CMPDataMapper mapper;
+        synchronized (cmpDataLock) {
+            // Keep the sections already serialized when the settings version did not move
+            String version = CMPDataMapper.versionOf(cmpData);
+            if (cmpDataMapper == null || !cmpDataMapper.getVersion().equals(version)) {
+                ConfigurationCache.Prepared prepared = configurationCache.getActive();
+                CMPDataMapper cached = prepared != null ? prepared.getCMPDataMapper() : null;
+                cmpDataMapper = cached != null && cached.getVersion().equals(version) ? cached : new CMPDataMapper(cmpData);
+                if (prepared != null) {
+                    prepared.setCMPDataMapper(cmpDataMapper);
+                }
+            }
+            mapper = cmpDataMapper;
+        }
+        return mapper;
+    }
+
+    private void invalidateCMPData() {
+        synchronized (cmpDataLock) {
+            cmpDataMapper = null;
+        }
+    }
+
+    public void restoreUserSession(String controllerId, Callback callback) {
         try {
-            if (usercentricsSDK == null) {
+            if (!usercentricsSDK.isAvailable()) {
                 callback.onError("Usercentrics not configured");
                 return;
             }
 
-            usercentricsSDK.restoreUserSession(usercentricsSDK.getControllerId(),
-                (UsercentricsReadyStatus status) -> {
-                    callback.onSuccess();
-                    return null;
-                },
-                (UsercentricsError error) -> {
-                    callback.onError(error.getMessage());
-                    return null;
+            SessionCache cache = sessionCache;
+            List<UsercentricsServiceConsent> cached = cache != null ? cache.get(controllerId) : null;
+            if (cached != null) {
+                // Known session: answer from the local copy, the SDK restore reconciles in the background
+                synchronized (tcfLock) {
+                    // The SDK still holds the previous user's TCF data, hold TCF reads until it is restored
+                    if (tcfAfterRestore == null) {
+                        tcfAfterRestore = new ArrayList<>();
+                        // The SDK may never call back, don't hold the reads forever
+                        tcfRestoreTimeout = restoreWatchdog.schedule(
+                            () -> failTCFReads("Timed out restoring the user session"),
+                            restoreTimeoutMillis,
+                            TimeUnit.MILLISECONDS
+                        );
+                    }
+                }
+                primeConsents(controllerId, cached);
+                callback.onSuccess();
+                notifyConsentChange(consentChangeTracker.update(cached));
+            }
+
+            long sdkStart = metrics.start();
+            usercentricsSDK.restoreUserSession(controllerId, new UsercentricsBackend.ReadyListener() {
+                @Override
+                public void onReady(boolean shouldCollectConsent, List<UsercentricsServiceConsent> consents) {
+                    metrics.record("sdk.restoreUserSession", sdkStart, false);
+                    consentSerializer.invalidate();
+                    if (cached == null) {
+                        callback.onSuccess();
+                    }
+                    consentsChanged(consents);
+                    releaseTCFReads();
                 }
-            );
+
+                @Override
+                public void onError(String error) {
+                    metrics.record("sdk.restoreUserSession", sdkStart, true);
+                    if (cached == null) {
+                        callback.onError(error);
+                        return;
+                    }
+                    // Already resolved from the cache, fall back to whatever state the SDK kept
+                    Logger.error("Usercentrics restoreUserSession reconciliation failed: " + error);
+                    cache.remove(controllerId);
+                    consentSerializer.invalidate();
+                    List<UsercentricsServiceConsent> current = readSdkConsents();
+                    storeBootstrap(current);
+                    notifyConsentChange(consentChangeTracker.update(current));
+                    releaseTCFReads();
+                }
+            });
         } catch (Exception e) {
             Logger.error("Usercentrics restoreUserSession error", e);
             callback.onError(e.getMessage());
         }
     }
 
+    /**
+     * Points every view derived from the consent state at the given consents: the serialized
+     * list, the status index, the bootstrap script and the SDK initializers. Used when the
+     * plugin answers before the SDK holds these consents itself.
+     */
+    private void primeConsents(String controllerId, List<UsercentricsServiceConsent> consents) {
+        consentSerializer.invalidate();
+        consentSerializer.serialize(consents);
+        consentStore.ensureVersion(consentSerializer.getStateVersion(), () -> consents);
+        ConsentBootstrap bootstrap = consentBootstrap;
+        if (bootstrap != null) {
+            bootstrap.store(controllerId, consents);
+        }
+        sdkInitScheduler.onConsents(consents);
+    }
+
+    private void releaseTCFReads() {
+        for (TCFSnapshotCallback read : takeTCFReads()) {
+            withTCFSnapshot(read);
+        }
+    }
+
+    private void failTCFReads(String error) {
+        for (TCFSnapshotCallback read : takeTCFReads()) {
+            read.onError(error);
+        }
+    }
+
+    private List<TCFSnapshotCallback> takeTCFReads() {
+        synchronized (tcfLock) {
+            List<TCFSnapshotCallback> waiting = tcfAfterRestore;
+            tcfAfterRestore = null;
+            if (tcfRestoreTimeout != null) {
+                tcfRestoreTimeout.cancel(false);
+                tcfRestoreTimeout = null;
+            }
+            return waiting != null ? waiting : Collections.emptyList();
+        }
+    }
+
+    /**
+     * Resolves the controllerId that restoreUserSession takes, the session cache is keyed by
+     * the same id.
+     */
     public void saveUserSession(SessionCallback callback) {
         try {
-            if (usercentricsSDK == null) {
+            if (!usercentricsSDK.isAvailable()) {
                 callback.onError("Usercentrics not configured");
                 return;
             }
 
-            String session = usercentricsSDK.getUserSessionData();
-            callback.onSuccess(session);
+            String controllerId = usercentricsSDK.getControllerId();
+            SessionCache cache = sessionCache;
+            if (cache != null) {
+                // A saved session is likely to be restored on this device, keep it warm
+                cache.put(controllerId, readSdkConsents());
+            }
+            callback.onSuccess(controllerId);
         } catch (Exception e) {
             Logger.error("Usercentrics saveUserSession error", e);
             callback.onError(e.getMessage());
         }
     }
 
-    public void applyConsent(JSObject consentsData, Callback callback) {
+    public void applyConsent(JSObject consentsData, boolean force, ConsentsCallback callback) {
         try {
-            if (usercentricsSDK == null) {
+            if (!usercentricsSDK.isAvailable()) {
                 callback.onError("Usercentrics not configured");
                 return;
             }
 
-            // Convert JSObject consents back to List<UsercentricsServiceConsent>
-            List<UsercentricsServiceConsent> consents = new ArrayList<>();
-            
-            // Iterate through the consents object
-            for (Iterator<String> it = consentsData.keys(); it.hasNext(); ) {
-                String key = it.next();
-                JSObject consentData = consentsData.getJSObject(key);
-                if (consentData != null) {
-                    String templateId = consentData.getString("templateId");
-                    boolean status = consentData.getBool("status");
-                    String dataProcessor = consentData.getString("dataProcessor");
-                    String version = consentData.getString("version");
-                    
-                    // Create a UsercentricsServiceConsent object
-                    UsercentricsServiceConsent consent = new UsercentricsServiceConsent(
-                        templateId, 
-                        status, 
-                        new ArrayList<>(), // history - empty list
-                        null, // type - null for now
-                        dataProcessor, 
-                        version, 
-                        false // isEssential - default to false
-                    );
-                    consents.add(consent);
-                }
-            }
-            
+            ConsentPayloadParser.Result parsed = parseConsents(consentsData, false);
+
             // Apply consent to each service
-            applyConsentToSDKs(consents);
+            applyConsentToSDKs(parsed.consents, force);
             
-            callback.onSuccess();
+            callback.onSuccess(parsed.toJSObject());
         } catch (Exception e) {
             Logger.error("Usercentrics applyConsent error", e);
             callback.onError(e.getMessage());
         }
     }
 
-    private void applyConsentToSDKs(List<UsercentricsServiceConsent> consents) {
+    private ConsentPayloadParser.Result parseConsents(JSObject consentsData, boolean withDecisions) {
+        long parseStart = metrics.start();
+        ConsentPayloadParser.Result parsed = ConsentPayloadParser.parse(consentsData, withDecisions);
+        metrics.record("parse.consents", parseStart, parsed.getErrorCount() > 0);
+        return parsed;
+    }
+
+    private void applyConsentToSDKs(List<UsercentricsServiceConsent> consents, boolean force) {
         if (consents == null) return;
-        
-        for (UsercentricsServiceConsent service : consents) {
-            String templateId = service.getTemplateId();
-            boolean status = service.getStatus();
-            
-            // Apply consent based on template ID
-            switch (templateId) {
-                case "diWdt4yLB": // Google Analytics for Firebase Template ID
-                    applyFirebaseConsent(status);
-                    break;
-                case "x-XXXxXx": // Example: Unity Ads Template ID
-                    applyUnityAdsConsent(status);
-                    break;
-                case "x-xXX-Xx": // Example: AppLovin Template ID
-                    applyAppLovinConsent(status);
-                    break;
-                // Add more cases for other SDKs as needed
-                default:
-                    Logger.warn("Unknown service template ID: " + templateId);
-                    break;
-            }
-        }
+
+        // Appliers run on the registry's executor so slow SDKs don't delay the caller
+        consentApplierRegistry.applyAsync(consents, force);
+        // SDK initializers only follow consents the Usercentrics SDK confirmed, see consentsChanged
     }
 
     private void applyFirebaseConsent(boolean consent) {
@@ -461,114 +1103,335 @@ public class CapacitorUsercentrics {
         }
     }
 
-    public void getTCFData(CMPDataCallback callback) {
+    public void getTCFData(JSObject options, CMPDataCallback callback) {
+        Set<String> fields = TCFDataMapper.fieldSet(options.optJSONArray("fields"), TCFDataMapper.ALL_FIELDS);
+        Set<String> vendorFields = TCFDataMapper.fieldSet(options.optJSONArray("vendorFields"), TCFDataMapper.ALL_VENDOR_FIELDS);
+        TCFPage page;
+        try {
+            page = TCFPage.parse(options.getString("cursor"), options.optInt("pageSize", 0));
+        } catch (IllegalArgumentException e) {
+            callback.onError(e.getMessage());
+            return;
+        }
+
+        withTCFSnapshot(new TCFSnapshotCallback() {
+            @Override
+            public void onSnapshot(TCFData tcfData, long version) {
+                if (!page.matches(version)) {
+                    callback.onError("TCF data changed, restart pagination");
+                    return;
+                }
+
+                try {
+                    long serializeStart = metrics.start();
+                    // Top-level sections are sent with the first page only
+                    JSObject result = page.isFirst() ? TCFDataMapper.mapTopLevel(tcfData, fields) : new JSObject();
+                    if (fields.contains("vendors")) {
+                        List<TCFVendor> vendors = TCFDataMapper.nonNull(tcfData.getVendors());
+                        result.put("vendors", TCFDataMapper.mapVendors(vendors, page.from(vendors.size()), page.to(vendors.size()), vendorFields));
+                        result.put("vendorCount", vendors.size());
+                        result.put("nextCursor", page.nextCursor(version, vendors.size()));
+                    }
+                    metrics.record("serialize.tcfData", serializeStart, false);
+                    callback.onSuccess(result);
+                } catch (Exception e) {
+                    // Runs on the SDK's callback thread, outside the caller's try block
+                    Logger.error("Usercentrics getTCFData error", e);
+                    callback.onError(e.getMessage());
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
+    }
+
+    // Fetches TCF data once per consent state version and keeps it for pagination and lookups
+    private void withTCFSnapshot(TCFSnapshotCallback callback) {
         try {
-            if (usercentricsSDK == null) {
+            if (!usercentricsSDK.isAvailable()) {
                 callback.onError("Usercentrics not configured");
                 return;
             }
 
+            TCFData cached;
+            long version;
+            synchronized (tcfLock) {
+                if (tcfAfterRestore != null) {
+                    tcfAfterRestore.add(callback);
+                    return;
+                }
+                version = consentSerializer.getStateVersion();
+                cached = tcfSnapshotVersion == version ? tcfSnapshot : null;
+            }
+            if (cached != null) {
+                callback.onSnapshot(cached, version);
+                return;
+            }
+
+            long sdkStart = metrics.start();
             usercentricsSDK.getTCFData((TCFData tcfData) -> {
-                    JSObject result = new JSObject();
-                    result.put("tcString", tcfData.getTcString());
-                    result.put("features", tcfData.getFeatures());
-                    result.put("purposes", tcfData.getPurposes());
-                    result.put("specialFeatures", tcfData.getSpecialFeatures());
-                    result.put("specialPurposes", tcfData.getSpecialPurposes());
-                    result.put("stacks", tcfData.getStacks());
-                    result.put("thirdPartyCount", tcfData.getThirdPartyCount());
-                    result.put("vendors", tcfData.getVendors());
-                    
-                    callback.onSuccess(result);
-                    return null;
-                });
+                metrics.record("sdk.getTCFData", sdkStart, false);
+                synchronized (tcfLock) {
+                    if (version == consentSerializer.getStateVersion()) {
+                        tcfSnapshot = tcfData;
+                        tcfSnapshotVersion = version;
+                    }
+                }
+                callback.onSnapshot(tcfData, version);
+            });
         } catch (Exception e) {
             Logger.error("Usercentrics getTCFData error", e);
             callback.onError(e.getMessage());
         }
     }
 
-    public void acceptAll(Callback callback) {
+    public void hasVendorConsent(int vendorId, int[] purposeIds, boolean allowLegitimateInterest, CMPDataCallback callback) {
+        withTCString(new TCStringCallback() {
+            @Override
+            public void onDecoded(TCString tcString) {
+                JSObject result = new JSObject();
+                result.put("granted", tcString.hasVendorConsent(vendorId, purposeIds, allowLegitimateInterest));
+                callback.onSuccess(result);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
+    }
+
+    public void hasVendorConsents(JSArray queries, boolean allowLegitimateInterest, CMPDataCallback callback) {
+        withTCString(new TCStringCallback() {
+            @Override
+            public void onDecoded(TCString tcString) {
+                JSArray granted = new JSArray();
+                for (int i = 0; i < queries.length(); i++) {
+                    JSONObject query = queries.optJSONObject(i);
+                    if (query == null) {
+                        granted.put(false);
+                        continue;
+                    }
+                    int[] purposeIds = toIntArray(query.optJSONArray("purposeIds"));
+                    granted.put(tcString.hasVendorConsent(query.optInt("vendorId", 0), purposeIds, allowLegitimateInterest));
+                }
+                JSObject result = new JSObject();
+                result.put("granted", granted);
+                callback.onSuccess(result);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
+    }
+
+    public void queryTCFIndex(String index, int id, CMPDataCallback callback) {
+        if (!TCFIndex.isIndex(index)) {
+            callback.onError("Unknown TCF index: " + index);
+            return;
+        }
+        withTCFSnapshot(new TCFSnapshotCallback() {
+            @Override
+            public void onSnapshot(TCFData tcfData, long version) {
+                // Built once per TCF snapshot, every later query is a map lookup
+                TCFIndex current = tcfIndex.get(version, () -> {
+                    long buildStart = metrics.start();
+                    TCFIndex built = TCFIndex.build(tcfData);
+                    metrics.record("build.tcfIndex", buildStart, false);
+                    return built;
+                });
+
+                JSArray ids = new JSArray();
+                for (int value : current.lookup(index, id)) {
+                    ids.put(value);
+                }
+                JSObject result = new JSObject();
+                result.put("ids", ids);
+                callback.onSuccess(result);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
+    }
+
+    static int[] toIntArray(JSONArray values) {
+        if (values == null) return new int[0];
+        int[] result = new int[values.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.optInt(i);
+        }
+        return result;
+    }
+
+    // Decodes the TC string once per TCF snapshot
+    private void withTCString(TCStringCallback callback) {
+        withTCFSnapshot(new TCFSnapshotCallback() {
+            @Override
+            public void onSnapshot(TCFData tcfData, long version) {
+                TCString tcString;
+                synchronized (tcfLock) {
+                    tcString = decodedTCStringVersion == version ? decodedTCString : null;
+                }
+                if (tcString == null) {
+                    try {
+                        tcString = TCString.decode(tcfData.getTcString());
+                    } catch (IllegalArgumentException e) {
+                        callback.onError("Invalid TC string: " + e.getMessage());
+                        return;
+                    }
+                    synchronized (tcfLock) {
+                        decodedTCString = tcString;
+                        decodedTCStringVersion = version;
+                    }
+                }
+                callback.onDecoded(tcString);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
+    }
+
+    public void acceptAll(boolean force, Callback callback) {
         try {
-            if (usercentricsSDK == null) {
+            if (!usercentricsSDK.isAvailable()) {
                 callback.onError("Usercentrics not configured");
                 return;
             }
 
+            long seq = logConsent(ConsentWriteAheadLog.ACCEPT_ALL, Collections.emptyList());
+            long sdkStart = metrics.start();
             List<UsercentricsServiceConsent> consents = usercentricsSDK.acceptAll(UsercentricsConsentType.EXPLICIT);
-            applyConsentToSDKs(consents);
+            metrics.record("sdk.acceptAll", sdkStart, false);
+            acknowledgeConsent(seq);
+            consentSerializer.invalidate();
+            applyConsentToSDKs(consents, force);
             
             callback.onSuccess();
+            consentsChanged(consents);
         } catch (Exception e) {
             Logger.error("Usercentrics acceptAll error", e);
             callback.onError(e.getMessage());
         }
     }
 
-    public void denyAll(Callback callback) {
+    public void denyAll(boolean force, Callback callback) {
         try {
-            if (usercentricsSDK == null) {
+            if (!usercentricsSDK.isAvailable()) {
                 callback.onError("Usercentrics not configured");
                 return;
             }
 
+            long seq = logConsent(ConsentWriteAheadLog.DENY_ALL, Collections.emptyList());
+            long sdkStart = metrics.start();
             List<UsercentricsServiceConsent> consents = usercentricsSDK.denyAll(UsercentricsConsentType.EXPLICIT);
-            applyConsentToSDKs(consents);
+            metrics.record("sdk.denyAll", sdkStart, false);
+            acknowledgeConsent(seq);
+            consentSerializer.invalidate();
+            applyConsentToSDKs(consents, force);
             
             callback.onSuccess();
+            consentsChanged(consents);
         } catch (Exception e) {
             Logger.error("Usercentrics denyAll error", e);
             callback.onError(e.getMessage());
         }
     }
 
-    public void saveConsent(JSObject consentsData, Callback callback) {
+    public void saveConsent(JSObject consentsData, boolean force, long batchWindowMillis, ConsentsCallback callback) {
         try {
-            if (usercentricsSDK == null) {
+            if (!usercentricsSDK.isAvailable()) {
                 callback.onError("Usercentrics not configured");
                 return;
             }
 
-            // Convert JSObject consents back to List<UserDecision>
-            List<UserDecision> decisions = new ArrayList<>();
-            List<UsercentricsServiceConsent> consents = new ArrayList<>();
-            
-            // Iterate through the consents object
-            for (Iterator<String> it = consentsData.keys(); it.hasNext(); ) {
-                String key = it.next();
-                JSObject consentData = consentsData.getJSObject(key);
-                if (consentData != null) {
-                    String templateId = consentData.getString("templateId");
-                    boolean status = consentData.getBool("status");
-                    String dataProcessor = consentData.getString("dataProcessor");
-                    String version = consentData.getString("version");
-                    
-                    // Create a UsercentricsServiceConsent object for applyConsentToSDKs
-                    UsercentricsServiceConsent consent = new UsercentricsServiceConsent(
-                        templateId, 
-                        status, 
-                        new ArrayList<>(), // history - empty list
-                        null, // type - null for now
-                        dataProcessor, 
-                        version, 
-                        false // isEssential - default to false
-                    );
-                    consents.add(consent);
-                    
-                    // Create a UserDecision object for saveDecisions
-                    UserDecision decision = new UserDecision(templateId, status);
-                    decisions.add(decision);
-                }
+            ConsentPayloadParser.Result parsed = parseConsents(consentsData, batchWindowMillis <= 0);
+            if (parsed.consents.isEmpty()) {
+                // Nothing valid to save, report the per-entry errors only
+                callback.onSuccess(parsed.toJSObject());
+                return;
             }
-            
-            // Save consent and apply to SDKs
-            usercentricsSDK.saveDecisions(decisions, UsercentricsConsentType.EXPLICIT);
-            applyConsentToSDKs(consents);
-            
-            callback.onSuccess();
+
+            if (batchWindowMillis > 0) {
+                // Logged now, the batched save may never run if the process dies in the window
+                long seq = logConsent(ConsentWriteAheadLog.DECISIONS, toDecisions(parsed.consents));
+                // Merged with other saves in the window, the batcher resolves the callback
+                saveConsentBatcher.enqueue(parsed.consents, force, batchWindowMillis, new Callback() {
+                    @Override
+                    public void onSuccess() {
+                        acknowledgeConsent(seq);
+                        callback.onSuccess(parsed.toJSObject());
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        callback.onError(error);
+                    }
+                });
+                return;
+            }
+
+            long seq = logConsent(ConsentWriteAheadLog.DECISIONS, parsed.decisions);
+            persistDecisions(parsed.consents, parsed.decisions, force);
+            acknowledgeConsent(seq);
+            callback.onSuccess(parsed.toJSObject());
         } catch (Exception e) {
             Logger.error("Usercentrics saveConsent error", e);
             callback.onError(e.getMessage());
         }
     }
+
+    private void persistConsents(List<UsercentricsServiceConsent> consents, boolean force) {
+        persistDecisions(consents, toDecisions(consents), force);
+    }
+
+    private static List<UserDecision> toDecisions(List<UsercentricsServiceConsent> consents) {
+        List<UserDecision> decisions = new ArrayList<>(consents.size());
+        for (UsercentricsServiceConsent consent : consents) {
+            decisions.add(new UserDecision(consent.getTemplateId(), consent.getStatus()));
+        }
+        return decisions;
+    }
+
+    /**
+     * Appends a decision to the consent log before it goes to the SDK, -1 when there is no
+     * log. A failed append is logged and the decision is still saved, just without recovery.
+     */
+    private long logConsent(byte type, List<UserDecision> decisions) {
+        ConsentWriteAheadLog log = consentLog;
+        if (log == null) return -1;
+        try {
+            return log.append(type, decisions);
+        } catch (IOException e) {
+            Logger.error("Usercentrics consent log append error", e);
+            return -1;
+        }
+    }
+
+    private void acknowledgeConsent(long seq) {
+        ConsentWriteAheadLog log = consentLog;
+        if (log != null && seq >= 0) {
+            log.acknowledge(seq);
+        }
+    }
+
+    private void persistDecisions(List<UsercentricsServiceConsent> consents, List<UserDecision> decisions, boolean force) {
+        // Save consent and apply to SDKs
+        long sdkStart = metrics.start();
+        List<UsercentricsServiceConsent> savedConsents = usercentricsSDK.saveDecisions(decisions, UsercentricsConsentType.EXPLICIT);
+        metrics.record("sdk.saveDecisions", sdkStart, false);
+        consentSerializer.invalidate();
+        applyConsentToSDKs(consents, force);
+        consentsChanged(savedConsents);
+    }
 }
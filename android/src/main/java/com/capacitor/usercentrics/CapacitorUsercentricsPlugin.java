@@ -1,24 +1,247 @@
 package com.capacitor.usercentrics;
 
+import android.app.Activity;
+import android.content.res.Configuration;
+import androidx.webkit.ScriptHandler;
+import androidx.webkit.WebViewCompat;
+import androidx.webkit.WebViewFeature;
+import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
+import com.getcapacitor.Logger;
 import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
 import com.getcapacitor.PluginMethod;
 import com.getcapacitor.annotation.CapacitorPlugin;
+import org.json.JSONException;
+
+import java.util.Collections;
 
 @CapacitorPlugin(name = "CapacitorUsercentrics")
 public class CapacitorUsercentricsPlugin extends Plugin {
 
-    private CapacitorUsercentrics implementation = new CapacitorUsercentrics();
+    private static final int MAX_BATCH_OPS = 32;
+
+    private final CapacitorUsercentrics implementation;
+    private final PluginMetrics metrics;
+    private final PluginExecutor executor;
+    private ScriptHandler bootstrapScript;
+
+    public CapacitorUsercentricsPlugin() {
+        this(new CapacitorUsercentrics());
+    }
+
+    CapacitorUsercentricsPlugin(CapacitorUsercentrics implementation) {
+        this.implementation = implementation;
+        this.metrics = implementation.getMetrics();
+        this.executor = new PluginExecutor(metrics);
+    }
 
     @Override
     public void load() {
         super.load();
-        implementation.setContext(getActivity());
+        attach(getActivity());
+        metrics.setEnabled(getConfig().getBoolean("metrics", true));
+        implementation.setConsentChangeListener(event -> {
+            notifyListeners("consentChanged", event);
+            // Reloads and navigations pick up the new state
+            getBridge().executeOnMainThread(this::injectConsentBootstrap);
+        });
+        implementation.getConsentApplierRegistry().setReportListener(report -> notifyListeners("consentApplied", report));
+        implementation.getSdkInitScheduler().setReportListener(report -> notifyListeners("sdkInitialized", report));
+        implementation.getConfigurationCache().setLimits(
+            getConfig().getInt("maxCachedConfigurations", ConfigurationCache.DEFAULT_MAX_ENTRIES),
+            getConfig().getInt("maxConfigurationCacheBytes", (int) ConfigurationCache.DEFAULT_MAX_BYTES)
+        );
+        implementation.getConfigurationCache().setEvictionListener(event -> notifyListeners("configurationEvicted", event));
+
+        // Plugins load before the WebView loads its first page
+        injectConsentBootstrap();
+
+        // Start initializing from capacitor.config so configure/isReady can attach to it
+        if (getConfig().getBoolean("preinitialize", false) && getConfig().getString("settingsId") != null) {
+            try {
+                implementation.preinitialize(JSObject.fromJSONObject(getConfig().getConfigJSON()));
+            } catch (JSONException e) {
+                Logger.error("Usercentrics preinitialize config error", e);
+            }
+        }
+    }
+
+    /**
+     * Registers the persisted consent state as a document-start script on the app's origin,
+     * replacing the previously registered one. Without a stored state, e.g. after reset, only
+     * the previous script is removed so the old consent does not come back on reload.
+     */
+    private void injectConsentBootstrap() {
+        if (bootstrapScript != null) {
+            bootstrapScript.remove();
+            bootstrapScript = null;
+        }
+        String script = implementation.getConsentBootstrapScript();
+        if (script == null) return;
+        if (!WebViewFeature.isFeatureSupported(WebViewFeature.DOCUMENT_START_SCRIPT)) {
+            Logger.debug("Usercentrics consent bootstrap skipped, document start scripts are not supported");
+            return;
+        }
+
+        String origin = getBridge().getLocalUrl();
+        if (origin.endsWith("/")) {
+            origin = origin.substring(0, origin.length() - 1);
+        }
+        bootstrapScript = WebViewCompat.addDocumentStartJavaScript(getBridge().getWebView(), script, Collections.singleton(origin));
+    }
+
+    private void resolve(PluginCall call, long start, JSObject result) {
+        if (result != null) {
+            call.resolve(result);
+        } else {
+            call.resolve();
+        }
+        metrics.record(call.getMethodName(), start, false);
+    }
+
+    private void reject(PluginCall call, long start, String error) {
+        call.reject(error);
+        metrics.record(call.getMethodName(), start, true);
+    }
+
+    /**
+     * Queues the call's work on the executor, rejecting the call when its lane is saturated.
+     */
+    private void execute(PluginCall call, long start, PluginExecutor.Lane lane, PluginExecutor.Ordering ordering, Runnable work) {
+        try {
+            executor.execute(lane, ordering, work);
+        } catch (PluginExecutor.SaturatedException e) {
+            reject(call, start, e.getMessage());
+        }
+    }
+
+    /**
+     * Same for work that completes in a callback, the work runs done when the callback fired.
+     */
+    private void execute(PluginCall call, long start, PluginExecutor.Lane lane, PluginExecutor.Ordering ordering, PluginExecutor.AsyncWork work) {
+        try {
+            executor.execute(lane, ordering, work);
+        } catch (PluginExecutor.SaturatedException e) {
+            reject(call, start, e.getMessage());
+        }
+    }
+
+    @PluginMethod
+    public void getExecutorStats(PluginCall call) {
+        call.resolve(executor.getStats());
+    }
+
+    @PluginMethod
+    public void getConfigurationCacheStats(PluginCall call) {
+        call.resolve(implementation.getConfigurationCache().getStats());
+    }
+
+    @PluginMethod
+    public void getMetrics(PluginCall call) {
+        call.resolve(metrics.snapshot());
+    }
+
+    @PluginMethod
+    public void resetMetrics(PluginCall call) {
+        metrics.reset();
+        call.resolve();
+    }
+
+    @PluginMethod
+    public void setMetricsEnabled(PluginCall call) {
+        metrics.setEnabled(call.getBoolean("enabled", true));
+        call.resolve();
+    }
+
+    @Override
+    protected void handleOnResume() {
+        super.handleOnResume();
+        implementation.setActivity(getActivity());
+    }
+
+    @Override
+    protected void handleOnPause() {
+        super.handleOnPause();
+        // The process may be killed in background, don't leave logged decisions in the OS cache
+        implementation.syncConsentLog();
+        Activity activity = getActivity();
+        if (activity != null && activity.isFinishing()) {
+            // onDestroy may come late or not at all, release the Activity right away
+            implementation.releaseActivity(activity);
+        }
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        super.handleOnDestroy();
+        detach(getActivity());
+    }
+
+    /**
+     * The part of load() that ties the plugin to its Activity.
+     */
+    void attach(Activity activity) {
+        implementation.setContext(activity);
+        implementation.setMutationExecutor(work -> executor.execute(PluginExecutor.Lane.GATING, PluginExecutor.Ordering.MUTATION, work));
+    }
+
+    /**
+     * Releases the Activity and stops every thread the plugin started, a destroyed plugin
+     * is never loaded again.
+     */
+    void detach(Activity activity) {
+        implementation.releaseActivity(activity);
+        executor.shutdown();
+        implementation.shutdown();
+    }
+
+    @Override
+    protected void handleOnConfigurationChanged(Configuration newConfig) {
+        super.handleOnConfigurationChanged(newConfig);
+        // Locale, orientation or theme changes invalidate the prepared banner
+        implementation.releaseBanner();
+    }
+
+    /**
+     * Registers a native consent applier for a templateId, replacing any existing one.
+     */
+    public void registerConsentApplier(String templateId, ConsentApplierRegistry.ConsentApplier applier) {
+        implementation.getConsentApplierRegistry().register(templateId, applier);
+    }
+
+    public void unregisterConsentApplier(String templateId) {
+        implementation.getConsentApplierRegistry().unregister(templateId);
+    }
+
+    public void setConsentApplierTimeout(long timeoutMillis) {
+        implementation.getConsentApplierRegistry().setTimeoutMillis(timeoutMillis);
+    }
+
+    /**
+     * Registers a third-party SDK initializer that runs once the templateId's consent is
+     * granted. Higher priorities start first.
+     */
+    public void registerSdkInitializer(String templateId, int priority, boolean onMainThread, SdkInitScheduler.Initializer initializer) {
+        implementation.getSdkInitScheduler().register(templateId, priority, onMainThread, initializer);
+    }
+
+    public void unregisterSdkInitializer(String templateId) {
+        implementation.getSdkInitScheduler().unregister(templateId);
+    }
+
+    public void setSdkInitStagger(long staggerMillis) {
+        implementation.getSdkInitScheduler().setStaggerMillis(staggerMillis);
+    }
+
+    @PluginMethod
+    public void getSdkInitStatus(PluginCall call) {
+        call.resolve(implementation.getSdkInitScheduler().getStatus());
     }
 
     @PluginMethod
     public void configure(PluginCall call) {
+        long start = metrics.start();
         JSObject options = call.getObject("options");
         if (options == null) {
             options = call.getData();
@@ -26,218 +249,454 @@ public class CapacitorUsercentricsPlugin extends Plugin {
         implementation.configure(options, new CapacitorUsercentrics.Callback() {
             @Override
             public void onSuccess() {
-                call.resolve();
+                resolve(call, start, null);
             }
 
             @Override
             public void onError(String error) {
-                call.reject(error);
+                reject(call, start, error);
             }
         });
     }
 
     @PluginMethod
-    public void isReady(PluginCall call) {
-        implementation.isReady(new CapacitorUsercentrics.ReadyCallback() {
-            @Override
-            public void onSuccess(JSObject status) {
-                call.resolve(status);
-            }
+    public void getStartupTimings(PluginCall call) {
+        long start = metrics.start();
+        resolve(call, start, implementation.getStartupTimings());
+    }
 
-            @Override
-            public void onError(String error) {
-                call.reject(error);
-            }
+    @PluginMethod
+    public void isReady(PluginCall call) {
+        long start = metrics.start();
+        execute(call, start, PluginExecutor.Lane.GATING, PluginExecutor.Ordering.READ, () -> {
+            implementation.isReady(new CapacitorUsercentrics.ReadyCallback() {
+                @Override
+                public void onSuccess(JSObject status) {
+                    resolve(call, start, status);
+                }
+
+                @Override
+                public void onError(String error) {
+                    reject(call, start, error);
+                }
+            });
         });
     }
 
     @PluginMethod
     public void showBanner(PluginCall call) {
-        implementation.showBanner(new CapacitorUsercentrics.BannerCallback() {
-            @Override
-            public void onSuccess(JSObject result) {
-                call.resolve(result);
-            }
+        long start = metrics.start();
+        execute(call, start, PluginExecutor.Lane.UI, PluginExecutor.Ordering.READ, () -> {
+            implementation.showBanner(new CapacitorUsercentrics.BannerCallback() {
+                @Override
+                public void onSuccess(JSObject result) {
+                    resolve(call, start, result);
+                }
+
+                @Override
+                public void onError(String error) {
+                    reject(call, start, error);
+                }
+            });
+        });
+    }
 
-            @Override
-            public void onError(String error) {
-                call.reject(error);
-            }
+    @PluginMethod
+    public void preloadBanner(PluginCall call) {
+        long start = metrics.start();
+        execute(call, start, PluginExecutor.Lane.UI, PluginExecutor.Ordering.READ, () -> {
+            implementation.preloadBanner(new CapacitorUsercentrics.Callback() {
+                @Override
+                public void onSuccess() {
+                    resolve(call, start, null);
+                }
+
+                @Override
+                public void onError(String error) {
+                    reject(call, start, error);
+                }
+            });
         });
     }
 
     @PluginMethod
     public void showSecondLayer(PluginCall call) {
-        implementation.showSecondLayer(new CapacitorUsercentrics.BannerCallback() {
-            @Override
-            public void onSuccess(JSObject result) {
-                call.resolve(result);
-            }
-
-            @Override
-            public void onError(String error) {
-                call.reject(error);
-            }
+        long start = metrics.start();
+        execute(call, start, PluginExecutor.Lane.UI, PluginExecutor.Ordering.READ, () -> {
+            implementation.showSecondLayer(new CapacitorUsercentrics.BannerCallback() {
+                @Override
+                public void onSuccess(JSObject result) {
+                    resolve(call, start, result);
+                }
+
+                @Override
+                public void onError(String error) {
+                    reject(call, start, error);
+                }
+            });
         });
     }
 
     @PluginMethod
     public void reset(PluginCall call) {
-        implementation.reset(new CapacitorUsercentrics.Callback() {
-            @Override
-            public void onSuccess() {
-                call.resolve();
-            }
-
-            @Override
-            public void onError(String error) {
-                call.reject(error);
-            }
+        long start = metrics.start();
+        execute(call, start, PluginExecutor.Lane.GATING, PluginExecutor.Ordering.MUTATION, done -> {
+            implementation.reset(new CapacitorUsercentrics.Callback() {
+                @Override
+                public void onSuccess() {
+                    // Also when no consent was known, a state stored by an earlier run may be registered
+                    getBridge().executeOnMainThread(CapacitorUsercentricsPlugin.this::injectConsentBootstrap);
+                    done.run();
+                    resolve(call, start, null);
+                }
+
+                @Override
+                public void onError(String error) {
+                    done.run();
+                    reject(call, start, error);
+                }
+            });
         });
     }
 
     @PluginMethod
     public void getConsents(PluginCall call) {
-        implementation.getConsents(new CapacitorUsercentrics.ConsentsCallback() {
-            @Override
-            public void onSuccess(JSObject consents) {
-                call.resolve(consents);
-            }
+        long start = metrics.start();
+        execute(call, start, PluginExecutor.Lane.GATING, PluginExecutor.Ordering.READ, () -> {
+            implementation.getConsents(new CapacitorUsercentrics.ConsentsCallback() {
+                @Override
+                public void onSuccess(JSObject consents) {
+                    resolve(call, start, consents);
+                }
+
+                @Override
+                public void onError(String error) {
+                    reject(call, start, error);
+                }
+            });
+        });
+    }
 
-            @Override
-            public void onError(String error) {
-                call.reject(error);
-            }
+    @PluginMethod
+    public void isConsentGiven(PluginCall call) {
+        long start = metrics.start();
+        String templateId = call.getString("templateId");
+        if (templateId == null) {
+            reject(call, start, "templateId is required");
+            return;
+        }
+        execute(call, start, PluginExecutor.Lane.GATING, PluginExecutor.Ordering.READ, () -> {
+            implementation.isConsentGiven(templateId, new CapacitorUsercentrics.CMPDataCallback() {
+                @Override
+                public void onSuccess(JSObject data) {
+                    resolve(call, start, data);
+                }
+
+                @Override
+                public void onError(String error) {
+                    reject(call, start, error);
+                }
+            });
         });
     }
 
     @PluginMethod
-    public void getCMPData(PluginCall call) {
-        implementation.getCMPData(new CapacitorUsercentrics.CMPDataCallback() {
-            @Override
-            public void onSuccess(JSObject data) {
-                call.resolve(data);
-            }
+    public void getConsentStatuses(PluginCall call) {
+        long start = metrics.start();
+        JSArray templateIds = call.getArray("templateIds");
+        if (templateIds == null) {
+            reject(call, start, "templateIds is required");
+            return;
+        }
+        execute(call, start, PluginExecutor.Lane.GATING, PluginExecutor.Ordering.READ, () -> {
+            implementation.getConsentStatuses(templateIds, new CapacitorUsercentrics.CMPDataCallback() {
+                @Override
+                public void onSuccess(JSObject data) {
+                    resolve(call, start, data);
+                }
+
+                @Override
+                public void onError(String error) {
+                    reject(call, start, error);
+                }
+            });
+        });
+    }
 
-            @Override
-            public void onError(String error) {
-                call.reject(error);
-            }
+    @PluginMethod
+    public void getCMPData(PluginCall call) {
+        long start = metrics.start();
+        execute(call, start, PluginExecutor.Lane.BULK, PluginExecutor.Ordering.READ, () -> {
+            implementation.getCMPData(call.getData(), new CapacitorUsercentrics.CMPDataCallback() {
+                @Override
+                public void onSuccess(JSObject data) {
+                    resolve(call, start, data);
+                }
+
+                @Override
+                public void onError(String error) {
+                    reject(call, start, error);
+                }
+            });
         });
     }
 
     @PluginMethod
     public void getTCFData(PluginCall call) {
-        implementation.getTCFData(new CapacitorUsercentrics.CMPDataCallback() {
-            @Override
-            public void onSuccess(JSObject data) {
-                call.resolve(data);
-            }
-
-            @Override
-            public void onError(String error) {
-                call.reject(error);
-            }
+        long start = metrics.start();
+        execute(call, start, PluginExecutor.Lane.BULK, PluginExecutor.Ordering.READ, () -> {
+            implementation.getTCFData(call.getData(), new CapacitorUsercentrics.CMPDataCallback() {
+                @Override
+                public void onSuccess(JSObject data) {
+                    resolve(call, start, data);
+                }
+
+                @Override
+                public void onError(String error) {
+                    reject(call, start, error);
+                }
+            });
         });
     }
 
     @PluginMethod
     public void restoreUserSession(PluginCall call) {
-        String userSession = call.getString("userSession");
-        implementation.restoreUserSession(userSession, new CapacitorUsercentrics.Callback() {
-            @Override
-            public void onSuccess() {
-                call.resolve();
-            }
-
-            @Override
-            public void onError(String error) {
-                call.reject(error);
-            }
+        long start = metrics.start();
+        String controllerId = call.getString("controllerId");
+        if (controllerId == null) {
+            reject(call, start, "controllerId is required");
+            return;
+        }
+        execute(call, start, PluginExecutor.Lane.GATING, PluginExecutor.Ordering.MUTATION, done -> {
+            implementation.restoreUserSession(controllerId, new CapacitorUsercentrics.Callback() {
+                @Override
+                public void onSuccess() {
+                    done.run();
+                    resolve(call, start, null);
+                }
+
+                @Override
+                public void onError(String error) {
+                    done.run();
+                    reject(call, start, error);
+                }
+            });
         });
     }
 
     @PluginMethod
     public void saveUserSession(PluginCall call) {
-        implementation.saveUserSession(new CapacitorUsercentrics.SessionCallback() {
-            @Override
-            public void onSuccess(String session) {
-                JSObject result = new JSObject();
-                result.put("session", session);
-                call.resolve(result);
-            }
+        long start = metrics.start();
+        execute(call, start, PluginExecutor.Lane.BULK, PluginExecutor.Ordering.READ, () -> {
+            implementation.saveUserSession(new CapacitorUsercentrics.SessionCallback() {
+                @Override
+                public void onSuccess(String controllerId) {
+                    JSObject result = new JSObject();
+                    result.put("controllerId", controllerId);
+                    resolve(call, start, result);
+                }
+
+                @Override
+                public void onError(String error) {
+                    reject(call, start, error);
+                }
+            });
+        });
+    }
 
-            @Override
-            public void onError(String error) {
-                call.reject(error);
-            }
+    @PluginMethod
+    public void hasVendorConsent(PluginCall call) {
+        long start = metrics.start();
+        Integer vendorId = call.getInt("vendorId");
+        if (vendorId == null) {
+            reject(call, start, "vendorId is required");
+            return;
+        }
+        int[] purposeIds = CapacitorUsercentrics.toIntArray(call.getArray("purposeIds"));
+        boolean allowLegitimateInterest = call.getBoolean("allowLegitimateInterest", false);
+        execute(call, start, PluginExecutor.Lane.GATING, PluginExecutor.Ordering.READ, () -> {
+            implementation.hasVendorConsent(vendorId, purposeIds, allowLegitimateInterest, new CapacitorUsercentrics.CMPDataCallback() {
+                @Override
+                public void onSuccess(JSObject data) {
+                    resolve(call, start, data);
+                }
+
+                @Override
+                public void onError(String error) {
+                    reject(call, start, error);
+                }
+            });
         });
     }
 
     @PluginMethod
-    public void acceptAll(PluginCall call) {
-        implementation.acceptAll(new CapacitorUsercentrics.Callback() {
-            @Override
-            public void onSuccess() {
-                call.resolve();
-            }
+    public void hasVendorConsents(PluginCall call) {
+        long start = metrics.start();
+        JSArray queries = call.getArray("queries");
+        if (queries == null) {
+            reject(call, start, "queries is required");
+            return;
+        }
+        boolean allowLegitimateInterest = call.getBoolean("allowLegitimateInterest", false);
+        execute(call, start, PluginExecutor.Lane.GATING, PluginExecutor.Ordering.READ, () -> {
+            implementation.hasVendorConsents(queries, allowLegitimateInterest, new CapacitorUsercentrics.CMPDataCallback() {
+                @Override
+                public void onSuccess(JSObject data) {
+                    resolve(call, start, data);
+                }
+
+                @Override
+                public void onError(String error) {
+                    reject(call, start, error);
+                }
+            });
+        });
+    }
 
-            @Override
-            public void onError(String error) {
-                call.reject(error);
-            }
+    @PluginMethod
+    public void queryTCFIndex(PluginCall call) {
+        long start = metrics.start();
+        String index = call.getString("index");
+        Integer id = call.getInt("id");
+        if (index == null || id == null) {
+            reject(call, start, "index and id are required");
+            return;
+        }
+        execute(call, start, PluginExecutor.Lane.GATING, PluginExecutor.Ordering.READ, () -> {
+            implementation.queryTCFIndex(index, id, new CapacitorUsercentrics.CMPDataCallback() {
+                @Override
+                public void onSuccess(JSObject data) {
+                    resolve(call, start, data);
+                }
+
+                @Override
+                public void onError(String error) {
+                    reject(call, start, error);
+                }
+            });
         });
     }
 
     @PluginMethod
-    public void denyAll(PluginCall call) {
-        implementation.denyAll(new CapacitorUsercentrics.Callback() {
-            @Override
-            public void onSuccess() {
-                call.resolve();
-            }
+    public void batch(PluginCall call) {
+        long start = metrics.start();
+        JSArray ops = call.getArray("ops");
+        if (ops == null) {
+            reject(call, start, "ops is required");
+            return;
+        }
+        if (ops.length() > MAX_BATCH_OPS) {
+            reject(call, start, "A batch holds at most " + MAX_BATCH_OPS + " operations");
+            return;
+        }
+        // Serial so no consent mutation can run between the batch's operations
+        execute(call, start, PluginExecutor.Lane.GATING, PluginExecutor.Ordering.CONSISTENT_READ, done -> {
+            implementation.batch(ops, new CapacitorUsercentrics.CMPDataCallback() {
+                @Override
+                public void onSuccess(JSObject data) {
+                    done.run();
+                    resolve(call, start, data);
+                }
+
+                @Override
+                public void onError(String error) {
+                    done.run();
+                    reject(call, start, error);
+                }
+            });
+        });
+    }
 
-            @Override
-            public void onError(String error) {
-                call.reject(error);
-            }
+    @PluginMethod
+    public void acceptAll(PluginCall call) {
+        long start = metrics.start();
+        boolean force = call.getBoolean("force", false);
+        execute(call, start, PluginExecutor.Lane.GATING, PluginExecutor.Ordering.MUTATION, done -> {
+            implementation.acceptAll(force, new CapacitorUsercentrics.Callback() {
+                @Override
+                public void onSuccess() {
+                    done.run();
+                    resolve(call, start, null);
+                }
+
+                @Override
+                public void onError(String error) {
+                    done.run();
+                    reject(call, start, error);
+                }
+            });
         });
     }
 
     @PluginMethod
-    public void applyConsent(PluginCall call) {
-        JSObject consents = call.getObject("consents");
-        if (consents == null) {
-            consents = call.getData();
-        }
-        implementation.applyConsent(consents, new CapacitorUsercentrics.Callback() {
-            @Override
-            public void onSuccess() {
-                call.resolve();
-            }
+    public void denyAll(PluginCall call) {
+        long start = metrics.start();
+        boolean force = call.getBoolean("force", false);
+        execute(call, start, PluginExecutor.Lane.GATING, PluginExecutor.Ordering.MUTATION, done -> {
+            implementation.denyAll(force, new CapacitorUsercentrics.Callback() {
+                @Override
+                public void onSuccess() {
+                    done.run();
+                    resolve(call, start, null);
+                }
+
+                @Override
+                public void onError(String error) {
+                    done.run();
+                    reject(call, start, error);
+                }
+            });
+        });
+    }
 
-            @Override
-            public void onError(String error) {
-                call.reject(error);
-            }
+    @PluginMethod
+    public void applyConsent(PluginCall call) {
+        long start = metrics.start();
+        JSObject payload = call.getObject("consents");
+        JSObject consents = payload != null ? payload : ConsentPayloadParser.withoutOptions(call.getData());
+        boolean force = call.getBoolean("force", false);
+        execute(call, start, PluginExecutor.Lane.GATING, PluginExecutor.Ordering.MUTATION, done -> {
+            implementation.applyConsent(consents, force, new CapacitorUsercentrics.ConsentsCallback() {
+                @Override
+                public void onSuccess(JSObject result) {
+                    done.run();
+                    resolve(call, start, result);
+                }
+
+                @Override
+                public void onError(String error) {
+                    done.run();
+                    reject(call, start, error);
+                }
+            });
         });
     }
 
     @PluginMethod
     public void saveConsent(PluginCall call) {
-        JSObject consents = call.getObject("consents");
-        if (consents == null) {
-            consents = call.getData();
-        }
-        implementation.saveConsent(consents, new CapacitorUsercentrics.Callback() {
-            @Override
-            public void onSuccess() {
-                call.resolve();
-            }
-
-            @Override
-            public void onError(String error) {
-                call.reject(error);
+        long start = metrics.start();
+        JSObject payload = call.getObject("consents");
+        JSObject consents = payload != null ? payload : ConsentPayloadParser.withoutOptions(call.getData());
+        boolean force = call.getBoolean("force", false);
+        long batchWindowMillis = call.getInt("batchWindowMillis", 0);
+        execute(call, start, PluginExecutor.Lane.GATING, PluginExecutor.Ordering.MUTATION, done -> {
+            implementation.saveConsent(consents, force, batchWindowMillis, new CapacitorUsercentrics.ConsentsCallback() {
+                @Override
+                public void onSuccess(JSObject result) {
+                    done.run();
+                    resolve(call, start, result);
+                }
+
+                @Override
+                public void onError(String error) {
+                    done.run();
+                    reject(call, start, error);
+                }
+            });
+            if (batchWindowMillis > 0) {
+                // The batch flush is the mutation later calls wait for, holding the serial
+                // thread until it resolved this call would keep the flush from ever running
+                done.run();
             }
         });
     }
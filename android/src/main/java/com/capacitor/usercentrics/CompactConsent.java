@@ -0,0 +1,95 @@
+package com.capacitor.usercentrics;
+
+import com.usercentrics.sdk.UsercentricsConsentHistoryEntry;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact consent kept by the plugin itself: the strings come from one shared pool so every
+ * templateId, dataProcessor and version exists once however often it is parsed, read from
+ * disk or logged, and the flags are plain booleans. SDK objects are only built from it at
+ * the boundary.
+ */
+public final class CompactConsent {
+
+    /**
+     * Shared by every consent the plugin builds itself, those never carry history.
+     */
+    public static final List<UsercentricsConsentHistoryEntry> EMPTY_HISTORY = Collections.emptyList();
+
+    // Far above the distinct templateIds, processors and versions of any real settings
+    static final int MAX_POOLED = 4096;
+
+    // The strings come from JS, past MAX_POOLED new values are used as they are, not pooled
+    private static final Map<String, String> POOL = new ConcurrentHashMap<>();
+
+    public final String templateId;
+    public final String dataProcessor;
+    public final String version;
+    public final boolean status;
+    public final boolean isEssential;
+
+    private CompactConsent(String templateId, boolean status, String dataProcessor, String version, boolean isEssential) {
+        this.templateId = templateId;
+        this.status = status;
+        this.dataProcessor = dataProcessor;
+        this.version = version;
+        this.isEssential = isEssential;
+    }
+
+    public static CompactConsent of(String templateId, boolean status, String dataProcessor, String version, boolean isEssential) {
+        return new CompactConsent(intern(templateId), status, intern(dataProcessor), intern(version), isEssential);
+    }
+
+    public static CompactConsent from(UsercentricsServiceConsent consent) {
+        return of(consent.getTemplateId(), consent.getStatus(), consent.getDataProcessor(), consent.getVersion(), consent.isEssential());
+    }
+
+    /**
+     * Returns the pooled instance equal to value, adding value on first sight while the pool
+     * has room.
+     */
+    public static String intern(String value) {
+        if (value == null) return null;
+        String pooled = POOL.get(value);
+        if (pooled != null) return pooled;
+        if (POOL.size() >= MAX_POOLED) return value;
+        pooled = POOL.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+
+    /**
+     * Empties the pool, e.g. on reset when the strings of the previous settings and user are
+     * no longer needed. Consents built before keep their strings.
+     */
+    public static void clearPool() {
+        POOL.clear();
+    }
+
+    static int poolSize() {
+        return POOL.size();
+    }
+
+    /**
+     * A consent built from parsed or stored values, with pooled strings and the shared history.
+     */
+    public static UsercentricsServiceConsent serviceConsent(String templateId, boolean status, String dataProcessor, String version, boolean isEssential) {
+        return new UsercentricsServiceConsent(
+            intern(templateId),
+            status,
+            EMPTY_HISTORY,
+            null, // type - not known outside the SDK
+            intern(dataProcessor),
+            intern(version),
+            isEssential
+        );
+    }
+
+    public UsercentricsServiceConsent toServiceConsent() {
+        return new UsercentricsServiceConsent(templateId, status, EMPTY_HISTORY, null, dataProcessor, version, isEssential);
+    }
+}
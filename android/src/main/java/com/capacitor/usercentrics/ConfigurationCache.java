@@ -0,0 +1,203 @@
+package com.capacitor.usercentrics;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU of prepared configurations keyed by settingsId, rulesetId, version and
+ * language. An app switching regions or flavors gets the CMP data mapped for a
+ * configuration back instead of mapping it again. The SDK is a singleton and is still
+ * initialized on every switch, that cost is not cached. Entries are evicted least
+ * recently used first once there are more than maxEntries or their estimated size
+ * exceeds maxBytes; the active configuration is never evicted.
+ */
+public class ConfigurationCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 4;
+    public static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024;
+
+    public interface EvictionListener {
+        void onEvicted(JSObject event);
+    }
+
+    /**
+     * State prepared for one configuration. The CMP data mapper is filled in lazily by the
+     * first getCMPData after the configuration became active.
+     */
+    public static class Prepared {
+        public final String key;
+        private volatile CMPDataMapper cmpDataMapper;
+        int hits;
+        long lastUsedMillis;
+
+        Prepared(String key) {
+            this.key = key;
+        }
+
+        public CMPDataMapper getCMPDataMapper() {
+            return cmpDataMapper;
+        }
+
+        public void setCMPDataMapper(CMPDataMapper mapper) {
+            this.cmpDataMapper = mapper;
+        }
+
+        long estimatedBytes() {
+            CMPDataMapper mapper = cmpDataMapper;
+            return mapper != null ? mapper.getEstimatedBytes() : 0;
+        }
+    }
+
+    // Access ordered, iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Prepared> entries = new LinkedHashMap<>(8, 0.75f, true);
+    private int maxEntries;
+    private long maxBytes;
+    private volatile EvictionListener evictionListener;
+    private Prepared active;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public ConfigurationCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+    }
+
+    public ConfigurationCache(int maxEntries, long maxBytes) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxBytes = maxBytes;
+    }
+
+    public static String keyOf(JSObject options) {
+        return options.getString("settingsId") + '|' +
+            options.getString("rulesetId") + '|' +
+            options.getString("version") + '|' +
+            options.getString("defaultLanguage");
+    }
+
+    public void setEvictionListener(EvictionListener listener) {
+        this.evictionListener = listener;
+    }
+
+    public void setLimits(int maxEntries, long maxBytes) {
+        List<JSObject> evicted;
+        synchronized (this) {
+            this.maxEntries = Math.max(1, maxEntries);
+            this.maxBytes = maxBytes;
+            evicted = trim();
+        }
+        report(evicted);
+    }
+
+    /**
+     * Makes the configuration for key the active one, returning its prepared state or a new
+     * empty entry on a miss.
+     */
+    public Prepared activate(String key) {
+        Prepared prepared;
+        List<JSObject> evicted;
+        synchronized (this) {
+            prepared = entries.get(key);
+            if (prepared != null) {
+                hits++;
+                prepared.hits++;
+            } else {
+                misses++;
+                prepared = new Prepared(key);
+                entries.put(key, prepared);
+            }
+            prepared.lastUsedMillis = System.currentTimeMillis();
+            active = prepared;
+            evicted = trim();
+        }
+        report(evicted);
+        return prepared;
+    }
+
+    public synchronized Prepared getActive() {
+        return active;
+    }
+
+    /**
+     * Re-checks the limits after an entry grew, e.g. when CMP data sections were mapped.
+     */
+    public void onGrown() {
+        List<JSObject> evicted;
+        synchronized (this) {
+            evicted = trim();
+        }
+        report(evicted);
+    }
+
+    /**
+     * Entries with their estimated size, i.e. that of their mapped CMP data sections, plus
+     * hit, miss and eviction counts. A hit spares the mapping, not the SDK initialization.
+     */
+    public synchronized JSObject getStats() {
+        JSArray list = new JSArray();
+        long totalBytes = 0;
+        for (Prepared prepared : entries.values()) {
+            long bytes = prepared.estimatedBytes();
+            totalBytes += bytes;
+            JSObject obj = new JSObject();
+            obj.put("key", prepared.key);
+            obj.put("estimatedBytes", bytes);
+            obj.put("hits", prepared.hits);
+            obj.put("lastUsed", prepared.lastUsedMillis);
+            obj.put("active", prepared == active);
+            list.put(obj);
+        }
+        JSObject result = new JSObject();
+        result.put("entries", list);
+        result.put("estimatedBytes", totalBytes);
+        result.put("maxEntries", maxEntries);
+        result.put("maxBytes", maxBytes);
+        result.put("hits", hits);
+        result.put("misses", misses);
+        result.put("evictions", evictions);
+        return result;
+    }
+
+    private List<JSObject> trim() {
+        List<JSObject> evicted = null;
+        long totalBytes = 0;
+        for (Prepared prepared : entries.values()) {
+            totalBytes += prepared.estimatedBytes();
+        }
+
+        Iterator<Map.Entry<String, Prepared>> it = entries.entrySet().iterator();
+        while (it.hasNext() && (entries.size() > maxEntries || totalBytes > maxBytes)) {
+            Prepared prepared = it.next().getValue();
+            if (prepared == active) continue;
+
+            String reason = entries.size() > maxEntries ? "entries" : "bytes";
+            long bytes = prepared.estimatedBytes();
+            it.remove();
+            totalBytes -= bytes;
+            evictions++;
+
+            JSObject event = new JSObject();
+            event.put("key", prepared.key);
+            event.put("estimatedBytes", bytes);
+            event.put("reason", reason);
+            if (evicted == null) {
+                evicted = new ArrayList<>();
+            }
+            evicted.add(event);
+        }
+        return evicted;
+    }
+
+    private void report(List<JSObject> evicted) {
+        EvictionListener listener = evictionListener;
+        if (evicted == null || listener == null) return;
+        for (JSObject event : evicted) {
+            listener.onEvicted(event);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.capacitor.usercentrics;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Logger;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the per-templateId consent appliers and runs them in parallel on a bounded
+ * executor, each with its own timeout. A report is published once every applier
+ * of a batch has settled.
+ *
+ * Appliers of the same templateId never overlap: a newer state waits until the applier
+ * for the previous one has returned, so the SDK always ends up with the latest consent.
+ * A state still waiting when an even newer one arrives is dropped as superseded.
+ */
+public class ConsentApplierRegistry {
+
+    public static final long DEFAULT_TIMEOUT_MILLIS = 5000;
+    private static final int MAX_QUEUED_APPLIERS = 128;
+
+    public interface ConsentApplier {
+        void apply(boolean consent) throws Exception;
+    }
+
+    public interface ReportListener {
+        void onReport(JSObject report);
+    }
+
+    private final Map<String, ConsentApplier> appliers = new ConcurrentHashMap<>();
+    private final Map<String, AppliedState> lastApplied = new ConcurrentHashMap<>();
+    // Running and waiting task per templateId, guarded by itself
+    private final Map<String, Chain> chains = new HashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService watchdog;
+    private volatile long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+    private volatile ReportListener reportListener;
+
+    public ConsentApplierRegistry() {
+        int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            30,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED_APPLIERS),
+            namedThreadFactory("UsercentricsApplier"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        watchdog = Executors.newSingleThreadScheduledExecutor(namedThreadFactory("UsercentricsApplierWatchdog"));
+    }
+
+    public void register(String templateId, ConsentApplier applier) {
+        appliers.put(templateId, applier);
+        // A new applier has never seen the current state
+        lastApplied.remove(templateId);
+    }
+
+    public void unregister(String templateId) {
+        appliers.remove(templateId);
+        lastApplied.remove(templateId);
+    }
+
+    /**
+     * Forgets every last-applied record so the next pass re-applies all services.
+     */
+    public void clearAppliedState() {
+        lastApplied.clear();
+    }
+
+    /**
+     * Stops the applier threads and the watchdog, appliers still running are interrupted.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        watchdog.shutdownNow();
+    }
+
+    public boolean isRegistered(String templateId) {
+        return appliers.containsKey(templateId);
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public void setReportListener(ReportListener listener) {
+        this.reportListener = listener;
+    }
+
+    /**
+     * Schedules the registered appliers for the given consents and returns immediately.
+     * Services whose status and version match the last applied ones are skipped unless
+     * force is set.
+     */
+    public void applyAsync(List<UsercentricsServiceConsent> consents, boolean force) {
+        if (consents == null) return;
+
+        List<Task> tasks = new ArrayList<>();
+        for (UsercentricsServiceConsent consent : consents) {
+            String templateId = consent.getTemplateId();
+            AppliedState state = new AppliedState(consent.getStatus(), consent.getVersion());
+            AppliedState previous = lastApplied.put(templateId, state);
+            if (!force && state.equals(previous)) {
+                continue;
+            }
+
+            ConsentApplier applier = appliers.get(templateId);
+            if (applier == null) {
+                Logger.warn("Unknown service template ID: " + templateId);
+                continue;
+            }
+            tasks.add(new Task(templateId, state, applier));
+        }
+        if (tasks.isEmpty()) return;
+
+        Batch batch = new Batch(tasks.size());
+        for (Task task : tasks) {
+            task.batch = batch;
+        }
+        for (Task task : tasks) {
+            enqueue(task);
+        }
+    }
+
+    private void enqueue(Task task) {
+        Task superseded;
+        synchronized (chains) {
+            Chain chain = chains.get(task.templateId);
+            if (chain == null) {
+                chain = new Chain();
+                chains.put(task.templateId, chain);
+            }
+            if (chain.running == null) {
+                chain.running = task;
+                superseded = null;
+            } else {
+                superseded = chain.waiting;
+                chain.waiting = task;
+                task = null;
+            }
+        }
+        if (superseded != null) {
+            superseded.settle("superseded", null);
+        }
+        if (task != null) {
+            submit(task);
+        }
+    }
+
+    private void submit(Task task) {
+        // The future is known before the task can run, so its watchdog is always able to cancel it
+        FutureTask<Void> future = new FutureTask<>(task, null);
+        task.future = future;
+        try {
+            executor.execute(future);
+        } catch (RejectedExecutionException e) {
+            Logger.error("Consent applier queue full, dropping " + task.templateId);
+            task.settle("rejected", null);
+            next(task);
+        }
+    }
+
+    // Starts the task waiting behind the given one, if any
+    private void next(Task task) {
+        Task waiting;
+        synchronized (chains) {
+            Chain chain = chains.get(task.templateId);
+            if (chain == null || chain.running != task) return;
+            waiting = chain.waiting;
+            chain.waiting = null;
+            chain.running = waiting;
+            if (waiting == null) {
+                chains.remove(task.templateId);
+            }
+        }
+        if (waiting != null) {
+            submit(waiting);
+        }
+    }
+
+    private static final class Chain {
+        private Task running;
+        private Task waiting;
+    }
+
+    private final class Batch {
+        private final JSArray results = new JSArray();
+        private final AtomicInteger pending;
+
+        Batch(int size) {
+            pending = new AtomicInteger(size);
+        }
+
+        synchronized void add(JSObject result) {
+            results.put(result);
+        }
+
+        void onSettled() {
+            if (pending.decrementAndGet() != 0) return;
+            ReportListener listener = reportListener;
+            if (listener != null) {
+                JSObject report = new JSObject();
+                report.put("results", results);
+                listener.onReport(report);
+            }
+        }
+    }
+
+    private final class Task implements Runnable {
+        private final String templateId;
+        private final AppliedState state;
+        private final boolean consent;
+        private final ConsentApplier applier;
+        private final AtomicBoolean settled = new AtomicBoolean(false);
+        private Batch batch;
+        private volatile Future<?> future;
+        private volatile long startNanos;
+
+        Task(String templateId, AppliedState state, ConsentApplier applier) {
+            this.templateId = templateId;
+            this.state = state;
+            this.consent = state.status;
+            this.applier = applier;
+        }
+
+        @Override
+        public void run() {
+            startNanos = System.nanoTime();
+            ScheduledFuture<?> timer = watchdog.schedule(() -> {
+                if (settle("timeout", null)) {
+                    Future<?> running = future;
+                    if (running != null) running.cancel(true);
+                }
+            }, timeoutMillis, TimeUnit.MILLISECONDS);
+            try {
+                applier.apply(consent);
+                settle("applied", null);
+            } catch (Exception e) {
+                Logger.error("Error applying consent for " + templateId, e);
+                settle("failed", e.getMessage());
+            } finally {
+                timer.cancel(false);
+                // Only once the applier has returned, a timed out one may still be running
+                next(this);
+            }
+        }
+
+        boolean settle(String outcome, String error) {
+            if (!settled.compareAndSet(false, true)) return false;
+            if (!"applied".equals(outcome)) {
+                // Let the next pass retry this service
+                lastApplied.remove(templateId, state);
+            }
+            JSObject result = new JSObject();
+            result.put("templateId", templateId);
+            result.put("status", consent);
+            result.put("outcome", outcome);
+            result.put("durationMs", startNanos == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            if (error != null) {
+                result.put("error", error);
+            }
+            batch.add(result);
+            batch.onSettled();
+            return true;
+        }
+    }
+
+    private static final class AppliedState {
+        private final boolean status;
+        private final String version;
+
+        AppliedState(boolean status, String version) {
+            this.status = status;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof AppliedState)) return false;
+            AppliedState other = (AppliedState) o;
+            return status == other.status && Objects.equals(version, other.version);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Boolean.hashCode(status) + Objects.hashCode(version);
+        }
+    }
+
+    private static ThreadFactory namedThreadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
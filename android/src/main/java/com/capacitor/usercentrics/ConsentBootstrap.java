@@ -0,0 +1,92 @@
+package com.capacitor.usercentrics;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import com.getcapacitor.Logger;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.List;
+
+/**
+ * Persists the last known consent state in a compact form and renders it as a script that
+ * defines a frozen window.UsercentricsBootstrap global, so page scripts can gate analytics
+ * and ads at startup without waiting for configure/isReady over the bridge.
+ */
+public class ConsentBootstrap {
+
+    public static final String GLOBAL_NAME = "UsercentricsBootstrap";
+
+    private static final String PREFERENCES = "usercentrics_bootstrap";
+    private static final String KEY_STATE = "state";
+    // Written by the Usercentrics SDK to the default preferences, as the TCF spec requires
+    private static final String IABTCF_TC_STRING = "IABTCF_TCString";
+
+    private final SharedPreferences preferences;
+    private final SharedPreferences defaultPreferences;
+
+    public ConsentBootstrap(Context context) {
+        Context appContext = context.getApplicationContext();
+        preferences = appContext.getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+        defaultPreferences = appContext.getSharedPreferences(appContext.getPackageName() + "_preferences", Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Stores the consent state: templateIds in order plus a bitmap where bit i is set when
+     * templateIds[i] is granted.
+     */
+    public void store(String controllerId, List<UsercentricsServiceConsent> consents) {
+        JSONArray templateIds = new JSONArray();
+        int[] words = new int[(consents.size() + 31) >>> 5];
+        for (int i = 0; i < consents.size(); i++) {
+            UsercentricsServiceConsent consent = consents.get(i);
+            templateIds.put(consent.getTemplateId());
+            if (consent.getStatus()) {
+                words[i >>> 5] |= 1 << (i & 31);
+            }
+        }
+        JSONArray bitmap = new JSONArray();
+        for (int word : words) {
+            bitmap.put(word);
+        }
+
+        try {
+            JSONObject state = new JSONObject();
+            state.put("controllerId", controllerId != null ? controllerId : JSONObject.NULL);
+            state.put("templateIds", templateIds);
+            state.put("bitmap", bitmap);
+            state.put("updatedAt", System.currentTimeMillis());
+            preferences.edit().putString(KEY_STATE, state.toString()).apply();
+        } catch (Exception e) {
+            Logger.error("Usercentrics consent bootstrap store error", e);
+        }
+    }
+
+    public void clear() {
+        preferences.edit().remove(KEY_STATE).apply();
+    }
+
+    /**
+     * The document-start script, or null when no consent state has been stored yet.
+     */
+    public String script() {
+        String state = preferences.getString(KEY_STATE, null);
+        if (state == null) return null;
+        String tcString = defaultPreferences.getString(IABTCF_TC_STRING, null);
+        return render(state, tcString);
+    }
+
+    static String render(String state, String tcString) {
+        return "(function(){" +
+            "if(window." + GLOBAL_NAME + ")return;" +
+            "var s=" + state + ";" +
+            "s.tcString=" + (tcString != null ? JSONObject.quote(tcString) : "null") + ";" +
+            "s.isGranted=function(id){var i=s.templateIds.indexOf(id);" +
+            "return i>=0&&((s.bitmap[i>>>5]>>>(i&31))&1)===1;};" +
+            "Object.freeze(s.templateIds);Object.freeze(s.bitmap);" +
+            "Object.defineProperty(window,'" + GLOBAL_NAME + "',{value:Object.freeze(s),writable:false,configurable:false});" +
+            "})();";
+    }
+}
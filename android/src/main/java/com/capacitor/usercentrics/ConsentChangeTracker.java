@@ -0,0 +1,80 @@
+package com.capacitor.usercentrics;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the last observed status per templateId and turns new consent
+ * lists into delta events for the JS layer.
+ */
+public class ConsentChangeTracker {
+
+    private final Map<String, Boolean> lastStatuses = new HashMap<>();
+    private long sequence = 0;
+
+    /**
+     * Records the given consents as the current state without producing an event.
+     */
+    public synchronized void seed(List<UsercentricsServiceConsent> consents) {
+        if (consents == null) return;
+        for (UsercentricsServiceConsent consent : consents) {
+            lastStatuses.put(consent.getTemplateId(), consent.getStatus());
+        }
+    }
+
+    /**
+     * Records the given consents and returns an event holding only the entries whose
+     * status differs from the last observed one, or null when nothing changed.
+     */
+    public synchronized JSObject update(List<UsercentricsServiceConsent> consents) {
+        if (consents == null) return null;
+
+        JSArray changes = new JSArray();
+        for (UsercentricsServiceConsent consent : consents) {
+            String templateId = consent.getTemplateId();
+            boolean status = consent.getStatus();
+            Boolean previous = lastStatuses.put(templateId, status);
+            if (previous == null || previous != status) {
+                changes.put(change(templateId, previous, status));
+            }
+        }
+        return toEvent(changes);
+    }
+
+    /**
+     * Forgets all known statuses, reporting every tracked templateId as cleared.
+     */
+    public synchronized JSObject clear() {
+        JSArray changes = new JSArray();
+        for (Map.Entry<String, Boolean> entry : lastStatuses.entrySet()) {
+            changes.put(change(entry.getKey(), entry.getValue(), null));
+        }
+        lastStatuses.clear();
+        return toEvent(changes);
+    }
+
+    private JSObject toEvent(JSArray changes) {
+        if (changes.length() == 0) {
+            return null;
+        }
+        JSObject event = new JSObject();
+        event.put("seq", ++sequence);
+        event.put("changes", changes);
+        return event;
+    }
+
+    private static JSObject change(String templateId, Boolean oldStatus, Boolean newStatus) {
+        JSObject change = new JSObject();
+        change.put("templateId", templateId);
+        change.put("oldStatus", oldStatus != null ? oldStatus : JSONObject.NULL);
+        change.put("newStatus", newStatus != null ? newStatus : JSONObject.NULL);
+        return change;
+    }
+}
@@ -0,0 +1,132 @@
+package com.capacitor.usercentrics;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.usercentrics.sdk.UserDecision;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Single pass over an applyConsent/saveConsent payload keyed by templateId. Entries are read
+ * straight from the call's JSON, without the per-entry JSObject copies of getJSObject, and
+ * invalid entries are reported individually while the valid ones go through.
+ */
+public class ConsentPayloadParser {
+
+    // Call options that may sit next to the entries when the consents are passed unwrapped
+    private static final String[] OPTION_KEYS = { "force", "batchWindowMillis" };
+
+    public static class Result {
+        public final List<UsercentricsServiceConsent> consents;
+        public final List<UserDecision> decisions;
+        private JSArray errors;
+
+        Result(int capacity, boolean withDecisions) {
+            consents = new ArrayList<>(capacity);
+            decisions = withDecisions ? new ArrayList<>(capacity) : Collections.emptyList();
+        }
+
+        void error(String key, String message) {
+            if (errors == null) {
+                errors = new JSArray();
+            }
+            JSObject error = new JSObject();
+            error.put("key", key);
+            error.put("error", message);
+            errors.put(error);
+        }
+
+        public int getErrorCount() {
+            return errors != null ? errors.length() : 0;
+        }
+
+        /**
+         * The resolve payload: how many entries were accepted and why the others were not.
+         */
+        public JSObject toJSObject() {
+            JSObject result = new JSObject();
+            result.put("accepted", consents.size());
+            result.put("errors", errors != null ? errors : new JSArray());
+            return result;
+        }
+    }
+
+    /**
+     * Parses every entry of the payload. With withDecisions the matching {@link UserDecision}s
+     * are built in the same pass for saveDecisions.
+     */
+    public static Result parse(JSONObject payload, boolean withDecisions) {
+        Result result = new Result(payload.length(), withDecisions);
+        for (Iterator<String> it = payload.keys(); it.hasNext(); ) {
+            String key = it.next();
+            JSONObject entry = payload.optJSONObject(key);
+            if (entry == null) {
+                result.error(key, "consent must be an object");
+                continue;
+            }
+
+            // The payload is keyed by templateId, an explicit templateId field wins
+            Object templateId = entry.opt("templateId");
+            if (templateId == null || templateId == JSONObject.NULL) {
+                templateId = key;
+            } else if (!(templateId instanceof String) || ((String) templateId).isEmpty()) {
+                result.error(key, "templateId must be a non-empty string");
+                continue;
+            }
+
+            Object status = entry.opt("status");
+            if (!(status instanceof Boolean)) {
+                result.error(key, "status must be a boolean");
+                continue;
+            }
+
+            boolean granted = (Boolean) status;
+            // Pooled strings, the bridge hands over fresh copies on every call
+            UsercentricsServiceConsent consent = CompactConsent.serviceConsent(
+                (String) templateId,
+                granted,
+                optionalString(entry, "dataProcessor"),
+                optionalString(entry, "version"),
+                false // isEssential - default to false
+            );
+            result.consents.add(consent);
+            if (withDecisions) {
+                result.decisions.add(new UserDecision(consent.getTemplateId(), granted));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The entries of a call that passed its consents flat, next to the options, rather than
+     * wrapped in "consents". Only the top level is copied.
+     */
+    public static JSObject withoutOptions(JSObject data) {
+        JSObject consents = new JSObject();
+        for (Iterator<String> it = data.keys(); it.hasNext(); ) {
+            String key = it.next();
+            if (!isOption(key)) {
+                consents.put(key, data.opt(key));
+            }
+        }
+        return consents;
+    }
+
+    private static boolean isOption(String key) {
+        for (String option : OPTION_KEYS) {
+            if (option.equals(key)) return true;
+        }
+        return false;
+    }
+
+    private static String optionalString(JSONObject entry, String name) {
+        Object value = entry.opt(name);
+        return value instanceof String ? (String) value : null;
+    }
+}
@@ -0,0 +1,80 @@
+package com.capacitor.usercentrics;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import java.util.List;
+
+/**
+ * Serializes consents to the JS representation and memoizes the result until
+ * the SDK consent state changes. Callers must treat the returned array as read-only.
+ */
+public class ConsentSerializer {
+
+    public interface ConsentSource {
+        List<UsercentricsServiceConsent> get();
+    }
+
+    private final PluginMetrics metrics;
+    private long stateVersion = 0;
+    private long cachedVersion = -1;
+    private JSArray cached;
+
+    public ConsentSerializer(PluginMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public synchronized long getStateVersion() {
+        return stateVersion;
+    }
+
+    /**
+     * Marks the SDK consent state as changed, dropping the cached payload.
+     */
+    public synchronized void invalidate() {
+        stateVersion++;
+        cached = null;
+    }
+
+    /**
+     * Returns the cached array for the current state version, only reading
+     * from the source when the cache is empty or stale.
+     */
+    public synchronized JSArray serialize(ConsentSource source) {
+        if (cached != null && cachedVersion == stateVersion) {
+            return cached;
+        }
+        List<UsercentricsServiceConsent> consents = source.get();
+        long serializeStart = metrics.start();
+        cached = toJSArray(consents);
+        metrics.record("serialize.consents", serializeStart, false);
+        cachedVersion = stateVersion;
+        return cached;
+    }
+
+    /**
+     * Serializes a consent list that is known to reflect the current SDK state
+     * (e.g. from a ready status or banner response) and caches it.
+     */
+    public synchronized JSArray serialize(List<UsercentricsServiceConsent> consents) {
+        return serialize(() -> consents);
+    }
+
+    public static JSArray toJSArray(List<UsercentricsServiceConsent> consents) {
+        JSArray consentsArr = new JSArray();
+        if (consents == null) {
+            return consentsArr;
+        }
+        for (UsercentricsServiceConsent consent : consents) {
+            JSObject consentObj = new JSObject();
+            consentObj.put("templateId", consent.getTemplateId());
+            consentObj.put("status", consent.getStatus());
+            consentObj.put("dataProcessor", consent.getDataProcessor());
+            consentObj.put("version", consent.getVersion());
+            consentObj.put("isEssential", consent.isEssential());
+            consentsArr.put(consentObj);
+        }
+        return consentsArr;
+    }
+}
@@ -0,0 +1,92 @@
+package com.capacitor.usercentrics;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory consent index: every templateId gets a dense int slot and grants live in a
+ * bitset, so status checks are O(1) and never touch the full consent list. The store is
+ * rebuilt only when the consent state version changes.
+ */
+public class ConsentStore {
+
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final BitSet known = new BitSet();
+    private final BitSet granted = new BitSet();
+    private long version = -1;
+
+    /**
+     * Rebuilds the index from the source if it was built for another state version.
+     */
+    public synchronized void ensureVersion(long stateVersion, ConsentSerializer.ConsentSource source) {
+        if (version == stateVersion) return;
+
+        // Slots are kept across rebuilds so indexes stay stable for known templateIds
+        known.clear();
+        granted.clear();
+        List<UsercentricsServiceConsent> consents = source.get();
+        if (consents != null) {
+            for (UsercentricsServiceConsent consent : consents) {
+                int slot = slotFor(consent.getTemplateId());
+                known.set(slot);
+                if (consent.getStatus()) {
+                    granted.set(slot);
+                }
+            }
+        }
+        version = stateVersion;
+    }
+
+    private int slotFor(String templateId) {
+        Integer slot = slots.get(templateId);
+        if (slot == null) {
+            slot = slots.size();
+            slots.put(templateId, slot);
+        }
+        return slot;
+    }
+
+    public synchronized boolean isKnown(String templateId) {
+        Integer slot = slots.get(templateId);
+        return slot != null && known.get(slot);
+    }
+
+    public synchronized boolean isConsentGiven(String templateId) {
+        Integer slot = slots.get(templateId);
+        return slot != null && granted.get(slot);
+    }
+
+    /**
+     * Packs the statuses of the requested templateIds into 32-bit words, bit i of the
+     * result is set when templateIds[i] is granted. Unknown templateIds read as denied.
+     */
+    public synchronized JSObject getStatuses(JSArray templateIds) {
+        int count = templateIds.length();
+        int[] words = new int[(count + 31) >>> 5];
+        int unknown = 0;
+        for (int i = 0; i < count; i++) {
+            Integer slot = slots.get(templateIds.optString(i));
+            if (slot == null || !known.get(slot)) {
+                unknown++;
+            } else if (granted.get(slot)) {
+                words[i >>> 5] |= 1 << (i & 31);
+            }
+        }
+
+        JSArray bitmap = new JSArray();
+        for (int word : words) {
+            bitmap.put(word);
+        }
+        JSObject result = new JSObject();
+        result.put("count", count);
+        result.put("unknown", unknown);
+        result.put("bitmap", bitmap);
+        return result;
+    }
+}
@@ -0,0 +1,321 @@
+package com.capacitor.usercentrics;
+
+import com.getcapacitor.Logger;
+import com.usercentrics.sdk.UserDecision;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of consent decisions, written before the SDK is asked to persist them and
+ * acknowledged once it has. Unacknowledged entries survive a process kill or a failed
+ * saveDecisions and are replayed as one batch on the next start.
+ *
+ * Records are length and CRC framed, a torn tail from a crash mid-write is ignored. Every
+ * append reaches the OS right away; fsync is batched to at most one per SYNC_INTERVAL_NANOS,
+ * an append that falls inside the interval is synced on the given scheduler when it ends.
+ */
+public class ConsentWriteAheadLog {
+
+    public static final byte DECISIONS = 1;
+    public static final byte ACCEPT_ALL = 2;
+    public static final byte DENY_ALL = 3;
+    private static final byte ACK = 4;
+
+    private static final long SYNC_INTERVAL_NANOS = 50_000_000L;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    /**
+     * An unacknowledged entry. decisions is empty for ACCEPT_ALL and DENY_ALL.
+     */
+    public static class Entry {
+        public final long seq;
+        public final byte type;
+        public final List<UserDecision> decisions;
+
+        Entry(long seq, byte type, List<UserDecision> decisions) {
+            this.seq = seq;
+            this.type = type;
+            this.decisions = decisions;
+        }
+    }
+
+    /**
+     * The net effect of a list of entries: an optional accept/deny-all followed by the
+     * individual decisions made after it, last decision per templateId wins.
+     */
+    public static class Replay {
+        public Byte bulk;
+        public final Map<String, Boolean> decisions = new LinkedHashMap<>();
+        public final List<Long> seqs = new ArrayList<>();
+
+        public boolean isEmpty() {
+            return seqs.isEmpty();
+        }
+
+        public List<UserDecision> toDecisions() {
+            List<UserDecision> result = new ArrayList<>(decisions.size());
+            for (Map.Entry<String, Boolean> decision : decisions.entrySet()) {
+                result.add(new UserDecision(decision.getKey(), decision.getValue()));
+            }
+            return result;
+        }
+    }
+
+    private final File file;
+    private final ScheduledExecutorService syncer;
+    private FileOutputStream out;
+    private long nextSeq = -1;
+    private long lastSyncNanos;
+    private boolean dirty = false;
+    private boolean syncScheduled = false;
+
+    public ConsentWriteAheadLog(File file, ScheduledExecutorService syncer) {
+        this.file = file;
+        this.syncer = syncer;
+        // nanoTime has an arbitrary origin, the first append syncs right away
+        this.lastSyncNanos = System.nanoTime() - SYNC_INTERVAL_NANOS;
+    }
+
+    public synchronized long append(byte type, List<UserDecision> decisions) throws IOException {
+        long seq = nextSeq();
+        write(encode(seq, type, decisions));
+        return seq;
+    }
+
+    /**
+     * Marks an entry as persisted by the SDK. Losing an ack only causes a harmless replay,
+     * so acks are not synced on their own.
+     */
+    public synchronized void acknowledge(long seq) {
+        try {
+            write(encode(seq, ACK, Collections.emptyList()));
+        } catch (IOException e) {
+            Logger.error("Usercentrics consent log ack error", e);
+        }
+    }
+
+    public synchronized List<Entry> pending() {
+        List<Entry> entries = new ArrayList<>();
+        Set<Long> acked = new HashSet<>();
+        if (!file.isFile()) return entries;
+
+        long maxSeq = -1;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                long crc = in.readInt() & 0xFFFFFFFFL;
+                if (length <= 0 || length > MAX_RECORD_BYTES) break;
+                byte[] record = new byte[length];
+                in.readFully(record);
+                if (checksum(record) != crc) break;
+
+                DataInputStream payload = new DataInputStream(new ByteArrayInputStream(record));
+                long seq = payload.readLong();
+                byte type = payload.readByte();
+                int count = payload.readInt();
+                maxSeq = Math.max(maxSeq, seq);
+                if (type == ACK) {
+                    acked.add(seq);
+                    continue;
+                }
+                List<UserDecision> decisions = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    decisions.add(new UserDecision(CompactConsent.intern(payload.readUTF()), payload.readBoolean()));
+                }
+                entries.add(new Entry(seq, type, decisions));
+            }
+        } catch (IOException e) {
+            // A torn record at the tail, everything before it is intact
+            Logger.debug("Usercentrics consent log ends in a partial record");
+        }
+        if (nextSeq < 0) {
+            nextSeq = maxSeq + 1;
+        }
+
+        List<Entry> unacknowledged = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (!acked.contains(entry.seq)) {
+                unacknowledged.add(entry);
+            }
+        }
+        return unacknowledged;
+    }
+
+    public static Replay merge(List<Entry> entries) {
+        Replay replay = new Replay();
+        for (Entry entry : entries) {
+            replay.seqs.add(entry.seq);
+            if (entry.type == ACCEPT_ALL || entry.type == DENY_ALL) {
+                // A bulk decision overrides everything logged before it
+                replay.bulk = entry.type;
+                replay.decisions.clear();
+            } else {
+                for (UserDecision decision : entry.decisions) {
+                    replay.decisions.remove(decision.getServiceId());
+                    replay.decisions.put(decision.getServiceId(), decision.getConsent());
+                }
+            }
+        }
+        return replay;
+    }
+
+    /**
+     * Rewrites the log with only the unacknowledged entries, an empty log is deleted.
+     */
+    public synchronized void compact() throws IOException {
+        List<Entry> remaining = pending();
+        closeOutput();
+        if (remaining.isEmpty()) {
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Could not delete " + file);
+            }
+            return;
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+        if (temp.exists()) temp.delete();
+        out = new FileOutputStream(temp);
+        for (Entry entry : remaining) {
+            writeRecord(encode(entry.seq, entry.type, entry.decisions));
+        }
+        out.getFD().sync();
+        closeOutput();
+        if (!temp.renameTo(file)) {
+            throw new IOException("Could not replace " + file);
+        }
+    }
+
+    /**
+     * Drops every entry, acknowledged or not.
+     */
+    public synchronized void clear() {
+        try {
+            closeOutput();
+        } catch (IOException e) {
+            Logger.error("Usercentrics consent log close error", e);
+        }
+        if (file.exists() && !file.delete()) {
+            Logger.warn("Usercentrics consent log could not be deleted");
+        }
+    }
+
+    private long nextSeq() {
+        if (nextSeq < 0) {
+            // Recovers the sequence from an existing log
+            pending();
+        }
+        return nextSeq++;
+    }
+
+    private void write(byte[] record) throws IOException {
+        if (out == null) {
+            File parent = file.getParentFile();
+            if (parent != null && !parent.isDirectory()) parent.mkdirs();
+            out = new FileOutputStream(file, true);
+        }
+        writeRecord(record);
+        dirty = true;
+
+        long now = System.nanoTime();
+        long elapsed = now - lastSyncNanos;
+        if (elapsed >= SYNC_INTERVAL_NANOS) {
+            out.getFD().sync();
+            lastSyncNanos = now;
+            dirty = false;
+        } else if (!syncScheduled) {
+            // Synced once the interval is over, together with whatever is appended until then
+            syncScheduled = true;
+            try {
+                syncer.schedule(this::scheduledSync, SYNC_INTERVAL_NANOS - elapsed, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shut down, the final sync on destroy covers this append
+                syncScheduled = false;
+            }
+        }
+    }
+
+    private synchronized void scheduledSync() {
+        syncScheduled = false;
+        sync();
+    }
+
+    synchronized boolean hasUnsyncedAppends() {
+        return dirty;
+    }
+
+    private void writeRecord(byte[] record) throws IOException {
+        ByteArrayOutputStream framed = new ByteArrayOutputStream(record.length + 8);
+        DataOutputStream header = new DataOutputStream(framed);
+        header.writeInt(record.length);
+        header.writeInt((int) checksum(record));
+        header.write(record);
+        // One write per record so a kill leaves at most one torn record
+        out.write(framed.toByteArray());
+    }
+
+    /**
+     * Syncs appends that are still only in the OS cache, e.g. when the app goes to background.
+     */
+    public synchronized void sync() {
+        if (!dirty || out == null) return;
+        try {
+            out.getFD().sync();
+            lastSyncNanos = System.nanoTime();
+            dirty = false;
+        } catch (IOException e) {
+            Logger.error("Usercentrics consent log sync error", e);
+        }
+    }
+
+    private void closeOutput() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+        dirty = false;
+    }
+
+    private static byte[] encode(long seq, byte type, List<UserDecision> decisions) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeLong(seq);
+        payload.writeByte(type);
+        payload.writeInt(decisions.size());
+        for (UserDecision decision : decisions) {
+            payload.writeUTF(decision.getServiceId());
+            payload.writeBoolean(decision.getConsent());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static long checksum(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+        return crc.getValue();
+    }
+}
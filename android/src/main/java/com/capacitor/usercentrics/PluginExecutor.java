@@ -0,0 +1,305 @@
+package com.capacitor.usercentrics;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs bridge calls off the plugin thread: SDK mutations on one serial thread, read-only
+ * queries and serialization on a small pool. The serial thread runs strictly in submission
+ * order and starts a task only once the previous one completed, which for asynchronous work
+ * is when its callback fired. The pool orders queued work by lane, then FIFO. Each lane is
+ * bounded so a burst of bulk reads cannot starve banner or gating calls.
+ */
+public class PluginExecutor {
+
+    // A callback that never fires must not block the serial thread for good
+    public static final long DEFAULT_SERIAL_HOLD_TIMEOUT_MILLIS = 30_000;
+
+    public enum Lane {
+        // Banner and other UI driven calls
+        UI("ui", 16),
+        // Small queries the app blocks on, e.g. consent checks before loading a script
+        GATING("gating", 64),
+        // Large payloads such as TCF or CMP data
+        BULK("bulk", 16);
+
+        final String key;
+        final int capacity;
+        // Built once, tasks record their wait under these on every run
+        final String serialMetric;
+        final String readMetric;
+
+        Lane(String key, int capacity) {
+            this.key = key;
+            this.capacity = capacity;
+            this.serialMetric = "queue.serial." + key;
+            this.readMetric = "queue.read." + key;
+        }
+    }
+
+    public enum Ordering {
+        // Read-only, runs on the pool unless a mutation is pending
+        READ,
+        // Read-only but needs one consent state throughout, e.g. a batch: runs on the serial
+        // thread between mutations without holding back the reads submitted after it
+        CONSISTENT_READ,
+        // Changes SDK state, the reads submitted after it wait until it completed
+        MUTATION
+    }
+
+    /**
+     * Work that completes asynchronously, it runs done once the call's callback fired.
+     */
+    public interface AsyncWork {
+        void run(Runnable done);
+    }
+
+    /**
+     * Thrown by {@link #execute} when the lane is full, the call should be rejected.
+     */
+    public static class SaturatedException extends RuntimeException {
+        SaturatedException(String message) {
+            super(message);
+        }
+    }
+
+    private final PluginMetrics metrics;
+    private final ThreadPoolExecutor serial;
+    private final ThreadPoolExecutor readers;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger pendingMutations = new AtomicInteger();
+    private final LaneStats[] stats = new LaneStats[Lane.values().length];
+    // Serial tasks waiting for the one in progress to complete, guarded by itself
+    private final Deque<Task> serialQueue = new ArrayDeque<>();
+    private boolean serialBusy = false;
+    private final ScheduledExecutorService serialWatchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "UsercentricsSerialWatchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile long serialHoldTimeoutMillis = DEFAULT_SERIAL_HOLD_TIMEOUT_MILLIS;
+
+    public PluginExecutor(PluginMetrics metrics) {
+        this.metrics = metrics;
+        for (Lane lane : Lane.values()) {
+            stats[lane.ordinal()] = new LaneStats();
+        }
+        // A read queued behind a mutation must not overtake it, whatever its lane
+        serial = newExecutor(1, "UsercentricsSerial", new LinkedBlockingQueue<>());
+        readers = newExecutor(
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)),
+            "UsercentricsRead",
+            new PriorityBlockingQueue<>()
+        );
+    }
+
+    /**
+     * Queues work that completes when it returns, see {@link #execute(Lane, Ordering, AsyncWork)}.
+     *
+     * @throws SaturatedException when the lane already holds its capacity of queued tasks
+     */
+    public void execute(Lane lane, Ordering ordering, Runnable work) {
+        execute(lane, ordering, done -> {
+            try {
+                work.run();
+            } finally {
+                done.run();
+            }
+        });
+    }
+
+    /**
+     * Queues work on the serial executor when it mutates SDK state or needs a consistent
+     * one, on the read pool otherwise. Reads submitted while a mutation is pending go to the
+     * serial executor as well.
+     *
+     * @throws SaturatedException when the lane already holds its capacity of queued tasks
+     */
+    public void execute(Lane lane, Ordering ordering, AsyncWork work) {
+        LaneStats laneStats = stats[lane.ordinal()];
+        int depth = laneStats.depth.incrementAndGet();
+        if (depth > lane.capacity) {
+            laneStats.depth.decrementAndGet();
+            laneStats.rejected.incrementAndGet();
+            throw new SaturatedException("Usercentrics " + lane.key + " queue is full");
+        }
+        int peak = laneStats.maxDepth.get();
+        while (depth > peak && !laneStats.maxDepth.compareAndSet(peak, depth)) {
+            peak = laneStats.maxDepth.get();
+        }
+        laneStats.submitted.incrementAndGet();
+
+        // A read issued behind a pending mutation queues after it so it observes the new state
+        boolean mutation = ordering == Ordering.MUTATION;
+        boolean onSerial = ordering != Ordering.READ || pendingMutations.get() > 0;
+        if (mutation) {
+            pendingMutations.incrementAndGet();
+        }
+        Task task = new Task(lane, mutation, onSerial, sequence.getAndIncrement(), metrics.start(), work);
+        if (onSerial) {
+            submitSerial(task);
+        } else {
+            readers.execute(task);
+        }
+    }
+
+    void setSerialHoldTimeoutMillis(long timeoutMillis) {
+        this.serialHoldTimeoutMillis = timeoutMillis;
+    }
+
+    private void submitSerial(Task task) {
+        synchronized (serialQueue) {
+            if (serialBusy) {
+                serialQueue.add(task);
+                return;
+            }
+            serialBusy = true;
+        }
+        serial.execute(task);
+    }
+
+    private void serialCompleted() {
+        Task next;
+        synchronized (serialQueue) {
+            next = serialQueue.poll();
+            if (next == null) {
+                serialBusy = false;
+                return;
+            }
+        }
+        try {
+            serial.execute(next);
+        } catch (RejectedExecutionException e) {
+            // Shut down, the plugin is gone and nothing waits for the queued calls
+            Logger.debug("Usercentrics serial executor is shut down, queued calls dropped");
+        }
+    }
+
+    /**
+     * Current and peak queue depth plus rejection counts per lane. Wait times are recorded
+     * in the plugin metrics as queue.serial.&lt;lane&gt; and queue.read.&lt;lane&gt;.
+     */
+    public JSObject getStats() {
+        JSObject lanes = new JSObject();
+        for (Lane lane : Lane.values()) {
+            LaneStats laneStats = stats[lane.ordinal()];
+            JSObject obj = new JSObject();
+            obj.put("depth", laneStats.depth.get());
+            obj.put("maxDepth", laneStats.maxDepth.get());
+            obj.put("submitted", laneStats.submitted.get());
+            obj.put("rejected", laneStats.rejected.get());
+            obj.put("capacity", lane.capacity);
+            lanes.put(lane.key, obj);
+        }
+        JSObject result = new JSObject();
+        result.put("lanes", lanes);
+        result.put("readThreads", readers.getMaximumPoolSize());
+        return result;
+    }
+
+    public void shutdown() {
+        serial.shutdown();
+        readers.shutdown();
+        serialWatchdog.shutdownNow();
+    }
+
+    private static ThreadPoolExecutor newExecutor(int threads, String name, BlockingQueue<Runnable> queue) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // The queues are unbounded, lanes enforce the bounds before tasks get here
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, queue, factory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static class LaneStats {
+        final AtomicInteger depth = new AtomicInteger();
+        final AtomicInteger maxDepth = new AtomicInteger();
+        final AtomicLong submitted = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+    }
+
+    private class Task implements Runnable, Comparable<Task> {
+        private final Lane lane;
+        private final boolean mutation;
+        private final boolean onSerial;
+        private final long sequence;
+        private final long enqueuedAt;
+        private final AsyncWork work;
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile ScheduledFuture<?> holdTimeout;
+
+        Task(Lane lane, boolean mutation, boolean onSerial, long sequence, long enqueuedAt, AsyncWork work) {
+            this.lane = lane;
+            this.mutation = mutation;
+            this.onSerial = onSerial;
+            this.sequence = sequence;
+            this.enqueuedAt = enqueuedAt;
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            stats[lane.ordinal()].depth.decrementAndGet();
+            metrics.record(onSerial ? lane.serialMetric : lane.readMetric, enqueuedAt, false);
+            try {
+                work.run(this::complete);
+            } catch (RuntimeException | Error e) {
+                complete();
+                throw e;
+            }
+            if (onSerial && !completed.get()) {
+                try {
+                    holdTimeout = serialWatchdog.schedule(() -> {
+                        if (completed.get()) return;
+                        Logger.warn("Usercentrics call did not complete within " + serialHoldTimeoutMillis + " ms, releasing the serial executor");
+                        complete();
+                    }, serialHoldTimeoutMillis, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Shut down, nothing runs after this task anyway
+                }
+            }
+        }
+
+        // Runs once, whichever of the callback, a failure or the hold timeout comes first
+        private void complete() {
+            if (!completed.compareAndSet(false, true)) return;
+            ScheduledFuture<?> timeout = holdTimeout;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            if (mutation) {
+                pendingMutations.decrementAndGet();
+            }
+            if (onSerial) {
+                serialCompleted();
+            }
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            if (lane != other.lane) return Integer.compare(lane.ordinal(), other.lane.ordinal());
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
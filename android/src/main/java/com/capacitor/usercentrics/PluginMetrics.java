@@ -0,0 +1,136 @@
+package com.capacitor.usercentrics;
+
+import com.getcapacitor.JSObject;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-operation latency histograms, call counts and error counts. Recording does
+ * not allocate once an operation has been seen, and is a single branch when disabled.
+ *
+ * Plugin calls are recorded under their method name, native SDK time under
+ * "sdk.<call>" and JSObject building under "serialize.<payload>".
+ */
+public class PluginMetrics {
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private volatile boolean enabled = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the start timestamp for a span, or 0 when metrics are disabled.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void record(String name, long startNanos, boolean error) {
+        if (startNanos == 0 || !enabled) return;
+        long elapsed = System.nanoTime() - startNanos;
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            // putIfAbsent rather than computeIfAbsent, which needs API 24
+            LatencyHistogram created = new LatencyHistogram();
+            LatencyHistogram existing = histograms.putIfAbsent(name, created);
+            histogram = existing != null ? existing : created;
+        }
+        histogram.record(elapsed, error);
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+
+    public JSObject snapshot() {
+        JSObject operations = new JSObject();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            operations.put(entry.getKey(), entry.getValue().toJSObject());
+        }
+        JSObject result = new JSObject();
+        result.put("enabled", enabled);
+        result.put("operations", operations);
+        return result;
+    }
+
+    /**
+     * Log-linear histogram over microseconds: 4 linear sub-buckets per power of two,
+     * which bounds the percentile error to 25%.
+     */
+    static final class LatencyHistogram {
+
+        static final int BUCKETS = 128;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos, boolean error) {
+            buckets.incrementAndGet(bucketIndex(TimeUnit.NANOSECONDS.toMicros(nanos)));
+            count.incrementAndGet();
+            if (error) {
+                errors.incrementAndGet();
+            }
+            long max;
+            while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+                // Retry until the max is published
+            }
+        }
+
+        static int bucketIndex(long micros) {
+            if (micros < 4) return (int) Math.max(micros, 0);
+            int exponent = 63 - Long.numberOfLeadingZeros(micros);
+            int sub = (int) (micros >>> (exponent - 2)) & 3;
+            return Math.min(4 + (exponent - 2) * 4 + sub, BUCKETS - 1);
+        }
+
+        static long bucketUpperBoundMicros(int index) {
+            if (index < 4) return index;
+            int exponent = (index - 4) / 4 + 2;
+            int sub = (index - 4) % 4;
+            long lower = (long) (4 + sub) << (exponent - 2);
+            return lower + (1L << (exponent - 2)) - 1;
+        }
+
+        long percentileMicros(double percentile) {
+            long total = 0;
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) return bucketUpperBoundMicros(i);
+            }
+            return bucketUpperBoundMicros(BUCKETS - 1);
+        }
+
+        JSObject toJSObject() {
+            JSObject result = new JSObject();
+            long maxMicros = TimeUnit.NANOSECONDS.toMicros(maxNanos.get());
+            result.put("count", count.get());
+            result.put("errors", errors.get());
+            // Bucket bounds can overshoot the largest recorded value
+            result.put("p50Ms", Math.min(percentileMicros(0.50), maxMicros) / 1000.0);
+            result.put("p95Ms", Math.min(percentileMicros(0.95), maxMicros) / 1000.0);
+            result.put("p99Ms", Math.min(percentileMicros(0.99), maxMicros) / 1000.0);
+            result.put("maxMs", maxNanos.get() / 1_000_000.0);
+            return result;
+        }
+    }
+}
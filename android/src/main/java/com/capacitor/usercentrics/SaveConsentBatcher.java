@@ -0,0 +1,162 @@
+package com.capacitor.usercentrics;
+
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces saveConsent calls arriving within a time window into a single save,
+ * last write wins per templateId. Every pending callback is resolved with the
+ * outcome of that single save. The window is timed here, the save itself runs on the
+ * flush executor so it can be ordered with the other SDK mutations.
+ */
+public class SaveConsentBatcher {
+
+    public interface Flusher {
+        void flush(List<UsercentricsServiceConsent> consents, boolean force) throws Exception;
+    }
+
+    private final Flusher flusher;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "UsercentricsSaveBatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Executor flushExecutor = Runnable::run;
+
+    // Held in compact form while the window is open, SDK objects are built at flush
+    private final Map<String, CompactConsent> pending = new LinkedHashMap<>();
+    private final List<CapacitorUsercentrics.Callback> callbacks = new ArrayList<>();
+    private boolean pendingForce = false;
+    private ScheduledFuture<?> scheduledFlush;
+    // Bumped whenever the open batch is taken or dropped, a flush only takes its own batch
+    private long generation = 0;
+
+    public SaveConsentBatcher(Flusher flusher) {
+        this.flusher = flusher;
+    }
+
+    /**
+     * Where the save runs once the window closed, by default on the batcher's own thread.
+     */
+    public void setFlushExecutor(Executor executor) {
+        this.flushExecutor = executor;
+    }
+
+    public synchronized void enqueue(List<UsercentricsServiceConsent> consents, boolean force, long windowMillis, CapacitorUsercentrics.Callback callback) {
+        for (UsercentricsServiceConsent consent : consents) {
+            // Re-insert so the merged batch keeps the order of the latest writes
+            CompactConsent compact = CompactConsent.from(consent);
+            pending.remove(compact.templateId);
+            pending.put(compact.templateId, compact);
+        }
+        callbacks.add(callback);
+        pendingForce |= force;
+
+        if (scheduledFlush == null) {
+            long batch = generation;
+            scheduledFlush = scheduler.schedule(() -> dispatch(batch), windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Drops the open batch without saving it, its callbacks fail with the given error.
+     */
+    public void clear(String error) {
+        List<CapacitorUsercentrics.Callback> waiting;
+        synchronized (this) {
+            waiting = drop();
+        }
+        complete(waiting, error);
+    }
+
+    /**
+     * Stops the window timer, an open batch is dropped and its callbacks fail.
+     */
+    public void shutdown() {
+        clear("Usercentrics was destroyed before the consent was saved");
+        scheduler.shutdownNow();
+    }
+
+    private void dispatch(long batch) {
+        try {
+            flushExecutor.execute(() -> flush(batch));
+        } catch (RuntimeException e) {
+            // E.g. a saturated or shut down executor, the batch can't be saved
+            clear(batch, e.getMessage());
+        }
+    }
+
+    // Drops the batch only if it is still the one the failed flush was dispatched for
+    private void clear(long batch, String error) {
+        List<CapacitorUsercentrics.Callback> waiting;
+        synchronized (this) {
+            if (batch != generation) return;
+            waiting = drop();
+        }
+        complete(waiting, error);
+    }
+
+    // Must hold the lock
+    private List<CapacitorUsercentrics.Callback> drop() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        pending.clear();
+        pendingForce = false;
+        List<CapacitorUsercentrics.Callback> waiting = new ArrayList<>(callbacks);
+        callbacks.clear();
+        generation++;
+        return waiting;
+    }
+
+    private void flush(long batch) {
+        List<UsercentricsServiceConsent> consents;
+        List<CapacitorUsercentrics.Callback> waiting;
+        boolean force;
+        synchronized (this) {
+            // The batch is taken only now, a clear() that ran before the flush got its turn wins.
+            // A batch opened after that clear has its own window, this flush must not take it.
+            if (batch != generation || callbacks.isEmpty()) return;
+            consents = new ArrayList<>(pending.size());
+            for (CompactConsent consent : pending.values()) {
+                consents.add(consent.toServiceConsent());
+            }
+            waiting = new ArrayList<>(callbacks);
+            force = pendingForce;
+            pending.clear();
+            callbacks.clear();
+            pendingForce = false;
+            scheduledFlush = null;
+            generation++;
+        }
+
+        String error = null;
+        try {
+            flusher.flush(consents, force);
+        } catch (Exception e) {
+            error = e.getMessage();
+        }
+        complete(waiting, error);
+    }
+
+    private static void complete(List<CapacitorUsercentrics.Callback> waiting, String error) {
+        for (CapacitorUsercentrics.Callback callback : waiting) {
+            if (error == null) {
+                callback.onSuccess();
+            } else {
+                callback.onError(error);
+            }
+        }
+    }
+}
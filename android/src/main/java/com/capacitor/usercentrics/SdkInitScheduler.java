@@ -0,0 +1,234 @@
+package com.capacitor.usercentrics;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Logger;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Defers third-party SDK initialization until the service's consent is granted. Granted
+ * initializers start one at a time, highest priority first, with a stagger between starts
+ * so heavy SDKs don't all initialize in the same frame. Denied services never initialize.
+ */
+public class SdkInitScheduler {
+
+    public static final long DEFAULT_STAGGER_MILLIS = 100;
+
+    public interface Initializer {
+        void initialize() throws Exception;
+    }
+
+    public interface ReportListener {
+        void onReport(JSObject report);
+    }
+
+    private enum State { WAITING, QUEUED, INITIALIZED, FAILED }
+
+    private static class Entry {
+        final String templateId;
+        final int priority;
+        final boolean onMainThread;
+        final Initializer initializer;
+        final long sequence;
+        State state = State.WAITING;
+
+        Entry(String templateId, int priority, boolean onMainThread, Initializer initializer, long sequence) {
+            this.templateId = templateId;
+            this.priority = priority;
+            this.onMainThread = onMainThread;
+            this.initializer = initializer;
+            this.sequence = sequence;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>((a, b) ->
+        a.priority != b.priority ? Integer.compare(b.priority, a.priority) : Long.compare(a.sequence, b.sequence)
+    );
+    private final Map<String, Boolean> statuses = new HashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final Executor mainThread;
+    private volatile long staggerMillis = DEFAULT_STAGGER_MILLIS;
+    private volatile ReportListener reportListener;
+    private long sequence = 0;
+    private boolean draining = false;
+
+    public SdkInitScheduler(Executor mainThread) {
+        this.mainThread = mainThread;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "UsercentricsSdkInit");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Registers an initializer for a templateId. Higher priorities start first; onMainThread
+     * runs it on the main thread for SDKs that require it. Registering again replaces an
+     * initializer that has not started yet. A service already known to be granted is queued
+     * right away.
+     */
+    public void register(String templateId, int priority, boolean onMainThread, Initializer initializer) {
+        boolean start;
+        synchronized (this) {
+            Entry previous = entries.get(templateId);
+            if (previous != null && previous.state != State.WAITING) return;
+            Entry entry = new Entry(templateId, priority, onMainThread, initializer, sequence++);
+            entries.put(templateId, entry);
+            // The grant may have arrived before the app registered, e.g. right after isReady
+            if (Boolean.TRUE.equals(statuses.get(templateId))) {
+                entry.state = State.QUEUED;
+                queue.add(entry);
+            }
+            start = startDraining();
+        }
+        if (start) {
+            schedule(0);
+        }
+    }
+
+    public synchronized void unregister(String templateId) {
+        Entry entry = entries.get(templateId);
+        if (entry != null && entry.state == State.WAITING) {
+            entries.remove(templateId);
+        }
+    }
+
+    public void setStaggerMillis(long staggerMillis) {
+        this.staggerMillis = staggerMillis;
+    }
+
+    public void setReportListener(ReportListener listener) {
+        this.reportListener = listener;
+    }
+
+    /**
+     * Queues the initializers whose service is granted in the given consents and withdraws
+     * queued ones whose service is now denied.
+     */
+    public void onConsents(List<UsercentricsServiceConsent> consents) {
+        if (consents == null) return;
+
+        boolean start;
+        synchronized (this) {
+            for (UsercentricsServiceConsent consent : consents) {
+                // Kept for initializers registered later
+                statuses.put(consent.getTemplateId(), consent.getStatus());
+                Entry entry = entries.get(consent.getTemplateId());
+                if (entry == null) continue;
+                if (consent.getStatus() && entry.state == State.WAITING) {
+                    entry.state = State.QUEUED;
+                    queue.add(entry);
+                } else if (!consent.getStatus() && entry.state == State.QUEUED) {
+                    // Revoked before its turn came, wait for a new grant
+                    queue.remove(entry);
+                    entry.state = State.WAITING;
+                }
+            }
+            start = startDraining();
+        }
+        if (start) {
+            schedule(0);
+        }
+    }
+
+    /**
+     * Forgets the known consent state, e.g. after a reset. Initializers registered from now
+     * on wait for a new grant.
+     */
+    public synchronized void clearConsents() {
+        statuses.clear();
+    }
+
+    // Must hold the lock, true when the caller has to start the drain
+    private boolean startDraining() {
+        if (draining || queue.isEmpty()) return false;
+        draining = true;
+        return true;
+    }
+
+    /**
+     * Stops the scheduler thread, initializers that have not started yet never will.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public synchronized JSObject getStatus() {
+        JSObject result = new JSObject();
+        for (Entry entry : entries.values()) {
+            result.put(entry.templateId, entry.state.name().toLowerCase(Locale.ROOT));
+        }
+        return result;
+    }
+
+    private void runNext() {
+        Entry entry;
+        synchronized (this) {
+            entry = queue.poll();
+            if (entry == null) {
+                draining = false;
+                return;
+            }
+        }
+
+        if (entry.onMainThread) {
+            mainThread.execute(() -> {
+                // The plugin may have been destroyed while this waited on the main looper
+                if (scheduler.isShutdown()) return;
+                initialize(entry);
+                schedule(staggerMillis);
+            });
+        } else {
+            initialize(entry);
+            schedule(staggerMillis);
+        }
+    }
+
+    // Never throws, a rejection on the main thread would crash the app
+    private void schedule(long delayMillis) {
+        try {
+            scheduler.schedule(this::runNext, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            Logger.debug("Usercentrics SDK init scheduler is shut down, initializers left queued");
+        }
+    }
+
+    private void initialize(Entry entry) {
+        long start = System.nanoTime();
+        String error = null;
+        try {
+            entry.initializer.initialize();
+        } catch (Exception e) {
+            Logger.error("Usercentrics SDK initializer failed for " + entry.templateId, e);
+            error = e.getMessage();
+        }
+        synchronized (this) {
+            // An initializer only ever runs once, a failed one stays failed
+            entry.state = error == null ? State.INITIALIZED : State.FAILED;
+        }
+
+        ReportListener listener = reportListener;
+        if (listener != null) {
+            JSObject report = new JSObject();
+            report.put("templateId", entry.templateId);
+            report.put("outcome", error == null ? "initialized" : "failed");
+            report.put("durationMs", (System.nanoTime() - start) / 1_000_000.0);
+            if (error != null) {
+                report.put("error", error);
+            }
+            listener.onReport(report);
+        }
+    }
+}
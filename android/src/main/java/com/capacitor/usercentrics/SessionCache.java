@@ -0,0 +1,145 @@
+package com.capacitor.usercentrics;
+
+import com.getcapacitor.Logger;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzipped per-controllerId consent snapshots on disk, so restoring a session this device
+ * has seen before can answer without waiting for the SDK's remote restore. Writes run
+ * on the given executor, the least recently written entries are evicted past maxEntries.
+ */
+public class SessionCache {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".session";
+
+    private final File directory;
+    private final int maxEntries;
+    private final Executor writer;
+
+    public SessionCache(File directory, int maxEntries, Executor writer) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        this.writer = writer;
+    }
+
+    /**
+     * Returns the cached consents for the controllerId, or null when there is no
+     * readable entry.
+     */
+    public List<UsercentricsServiceConsent> get(String controllerId) {
+        File file = fileFor(controllerId);
+        if (!file.isFile()) return null;
+
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != FORMAT_VERSION || !controllerId.equals(in.readUTF())) return null;
+
+            int count = in.readInt();
+            List<UsercentricsServiceConsent> consents = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String templateId = in.readUTF();
+                boolean status = in.readBoolean();
+                boolean isEssential = in.readBoolean();
+                String version = in.readUTF();
+                String dataProcessor = in.readUTF();
+                consents.add(CompactConsent.serviceConsent(templateId, status, dataProcessor, version, isEssential));
+            }
+            return consents;
+        } catch (IOException e) {
+            Logger.error("Usercentrics session cache read error", e);
+            file.delete();
+            return null;
+        }
+    }
+
+    public void put(String controllerId, List<UsercentricsServiceConsent> consents) {
+        if (controllerId == null || consents == null) return;
+        // Copy the list now, the caller's list may change before the write runs
+        List<UsercentricsServiceConsent> snapshot = new ArrayList<>(consents);
+        writer.execute(() -> write(controllerId, snapshot));
+    }
+
+    public void remove(String controllerId) {
+        writer.execute(() -> fileFor(controllerId).delete());
+    }
+
+    private void write(String controllerId, List<UsercentricsServiceConsent> consents) {
+        if (!directory.isDirectory() && !directory.mkdirs()) return;
+
+        File file = fileFor(controllerId);
+        File temp = new File(directory, file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(temp))))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(controllerId);
+            out.writeInt(consents.size());
+            for (UsercentricsServiceConsent consent : consents) {
+                out.writeUTF(consent.getTemplateId());
+                out.writeBoolean(consent.getStatus());
+                out.writeBoolean(consent.isEssential());
+                out.writeUTF(nonNull(consent.getVersion()));
+                out.writeUTF(nonNull(consent.getDataProcessor()));
+            }
+        } catch (IOException e) {
+            Logger.error("Usercentrics session cache write error", e);
+            temp.delete();
+            return;
+        }
+
+        // Readers see either the previous entry or the complete new one
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            return;
+        }
+        evict();
+    }
+
+    private void evict() {
+        File[] entries = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (entries == null || entries.length <= maxEntries) return;
+
+        Arrays.sort(entries, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i < entries.length - maxEntries; i++) {
+            entries[i].delete();
+        }
+    }
+
+    private File fileFor(String controllerId) {
+        // Hashed so arbitrary ids map to safe file names
+        return new File(directory, sha1(controllerId) + SUFFIX);
+    }
+
+    private static String sha1(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String nonNull(String value) {
+        return value != null ? value : "";
+    }
+}
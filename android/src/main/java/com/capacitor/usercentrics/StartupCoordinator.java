@@ -0,0 +1,196 @@
+package com.capacitor.usercentrics;
+
+import com.getcapacitor.JSObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs SDK initialization off the calling thread, at most once per configuration,
+ * and lets later configure/isReady calls attach to the work already in flight.
+ * Also records the startup phase timings.
+ */
+public class StartupCoordinator {
+
+    public static final String SUPERSEDED = "Usercentrics configure was superseded by a configure with other options";
+
+    public interface InitWork {
+        void run(StartupCoordinator coordinator) throws Exception;
+    }
+
+    private enum State {
+        IDLE,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "UsercentricsInit");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // configure calls for the run in flight, they only ever get that run's outcome
+    private List<CapacitorUsercentrics.Callback> configureWaiters = new ArrayList<>();
+    // whenConfigured calls, they follow whichever configure is the latest
+    private final List<CapacitorUsercentrics.Callback> waiters = new ArrayList<>();
+    private State state = State.IDLE;
+    private String configurationKey;
+    private String error;
+    private long generation = 0;
+    private boolean preinitialized = false;
+
+    private long startNanos;
+    private long optionsParseNanos = -1;
+    private long initializeNanos = -1;
+    private long firstReadyNanos = -1;
+
+    /**
+     * Starts initialization for the given configuration, or attaches the callback to
+     * the run already started for the same configuration. A run still in flight for other
+     * options is superseded, its configure callers fail with {@link #SUPERSEDED}.
+     */
+    public void configure(String key, boolean preinitialize, InitWork work, CapacitorUsercentrics.Callback callback) {
+        List<CapacitorUsercentrics.Callback> superseded = null;
+        synchronized (this) {
+            if (key.equals(configurationKey) && state != State.FAILED) {
+                if (state == State.RUNNING) {
+                    configureWaiters.add(callback);
+                } else {
+                    whenConfigured(callback);
+                }
+                return;
+            }
+
+            if (state == State.RUNNING) {
+                // Resolving these with the newer run would report options they never asked for
+                superseded = configureWaiters;
+            }
+            long runGeneration = ++generation;
+            configurationKey = key;
+            state = State.RUNNING;
+            error = null;
+            preinitialized = preinitialize;
+            startNanos = System.nanoTime();
+            optionsParseNanos = -1;
+            initializeNanos = -1;
+            firstReadyNanos = -1;
+            configureWaiters = new ArrayList<>();
+            configureWaiters.add(callback);
+
+            executor.execute(() -> {
+                String failure = null;
+                try {
+                    work.run(this);
+                } catch (Exception e) {
+                    failure = e.getMessage() != null ? e.getMessage() : e.toString();
+                }
+                finish(runGeneration, failure);
+            });
+        }
+        if (superseded != null) {
+            complete(superseded, SUPERSEDED);
+        }
+    }
+
+    /**
+     * Invokes the callback once the latest configure has finished. Calls made before
+     * any configure are passed straight through.
+     */
+    public void whenConfigured(CapacitorUsercentrics.Callback callback) {
+        String failure;
+        synchronized (this) {
+            if (state == State.RUNNING) {
+                waiters.add(callback);
+                return;
+            }
+            failure = state == State.FAILED ? error : null;
+        }
+        if (failure == null) {
+            callback.onSuccess();
+        } else {
+            callback.onError(failure);
+        }
+    }
+
+    private void finish(long runGeneration, String failure) {
+        List<CapacitorUsercentrics.Callback> done;
+        synchronized (this) {
+            if (runGeneration != generation) {
+                // Superseded, its configure callers already failed and the waiters follow the newer run
+                return;
+            }
+            state = failure == null ? State.DONE : State.FAILED;
+            error = failure;
+            done = new ArrayList<>(configureWaiters);
+            done.addAll(waiters);
+            configureWaiters = new ArrayList<>();
+            waiters.clear();
+        }
+        complete(done, failure);
+    }
+
+    private static void complete(List<CapacitorUsercentrics.Callback> callbacks, String failure) {
+        for (CapacitorUsercentrics.Callback callback : callbacks) {
+            if (failure == null) {
+                callback.onSuccess();
+            } else {
+                callback.onError(failure);
+            }
+        }
+    }
+
+    /**
+     * Forgets the finished configuration after the SDK was reset, so the next configure
+     * initializes again even with the same options. A run still in flight is left alone,
+     * the next configure supersedes it.
+     */
+    public synchronized void reset() {
+        configurationKey = null;
+        if (state == State.RUNNING) return;
+        state = State.IDLE;
+        error = null;
+        preinitialized = false;
+        optionsParseNanos = -1;
+        initializeNanos = -1;
+        firstReadyNanos = -1;
+    }
+
+    /**
+     * Stops the initialization thread, a run in flight is interrupted.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public synchronized void markOptionsParsed() {
+        optionsParseNanos = System.nanoTime() - startNanos;
+    }
+
+    public synchronized void markInitialized() {
+        initializeNanos = System.nanoTime() - startNanos - Math.max(optionsParseNanos, 0);
+    }
+
+    public synchronized void markReady() {
+        if (firstReadyNanos < 0 && state != State.IDLE) {
+            firstReadyNanos = System.nanoTime() - startNanos;
+        }
+    }
+
+    public synchronized JSObject getTimings() {
+        JSObject result = new JSObject();
+        result.put("preinitialized", preinitialized);
+        result.put("optionsParseMs", toMillis(optionsParseNanos));
+        result.put("initializeMs", toMillis(initializeNanos));
+        result.put("firstReadyMs", toMillis(firstReadyNanos));
+        return result;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos < 0 ? -1 : nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,156 @@
+package com.capacitor.usercentrics;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.usercentrics.sdk.services.tcf.interfaces.IdAndName;
+import com.usercentrics.sdk.services.tcf.interfaces.TCFData;
+import com.usercentrics.sdk.services.tcf.interfaces.TCFFeature;
+import com.usercentrics.sdk.services.tcf.interfaces.TCFPurpose;
+import com.usercentrics.sdk.services.tcf.interfaces.TCFSpecialFeature;
+import com.usercentrics.sdk.services.tcf.interfaces.TCFSpecialPurpose;
+import com.usercentrics.sdk.services.tcf.interfaces.TCFStack;
+import com.usercentrics.sdk.services.tcf.interfaces.TCFVendor;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Maps {@link TCFData} to JS objects with optional field projection. Nested id/name
+ * references are reduced to id arrays.
+ */
+public class TCFDataMapper {
+
+    public static final Set<String> ALL_FIELDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+        "tcString", "features", "purposes", "specialFeatures", "specialPurposes", "stacks", "thirdPartyCount", "vendors"
+    )));
+
+    public static final Set<String> ALL_VENDOR_FIELDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+        "id", "name", "consent", "legitimateInterestConsent", "purposes", "legitimateInterestPurposes",
+        "specialPurposes", "features", "specialFeatures", "policyUrl"
+    )));
+
+    /**
+     * Reads a string array option into a field set, falling back to the given defaults.
+     */
+    public static Set<String> fieldSet(JSONArray values, Set<String> defaults) {
+        if (values == null) return defaults;
+        Set<String> fields = new HashSet<>();
+        for (int i = 0; i < values.length(); i++) {
+            fields.add(values.optString(i));
+        }
+        return fields;
+    }
+
+    /**
+     * Maps every selected top-level field except vendors, which are paged separately.
+     */
+    public static JSObject mapTopLevel(TCFData tcfData, Set<String> fields) {
+        JSObject result = new JSObject();
+        if (fields.contains("tcString")) {
+            result.put("tcString", tcfData.getTcString());
+        }
+        if (fields.contains("thirdPartyCount")) {
+            result.put("thirdPartyCount", tcfData.getThirdPartyCount());
+        }
+        if (fields.contains("purposes")) {
+            JSArray purposes = new JSArray();
+            for (TCFPurpose purpose : nonNull(tcfData.getPurposes())) {
+                JSObject obj = new JSObject();
+                obj.put("id", purpose.getId());
+                obj.put("name", purpose.getName());
+                obj.put("description", purpose.getPurposeDescription());
+                putNullable(obj, "consent", purpose.getConsent());
+                putNullable(obj, "legitimateInterestConsent", purpose.getLegitimateInterestConsent());
+                purposes.put(obj);
+            }
+            result.put("purposes", purposes);
+        }
+        if (fields.contains("specialPurposes")) {
+            JSArray specialPurposes = new JSArray();
+            for (TCFSpecialPurpose purpose : nonNull(tcfData.getSpecialPurposes())) {
+                specialPurposes.put(describe(purpose.getId(), purpose.getName(), purpose.getPurposeDescription()));
+            }
+            result.put("specialPurposes", specialPurposes);
+        }
+        if (fields.contains("features")) {
+            JSArray features = new JSArray();
+            for (TCFFeature feature : nonNull(tcfData.getFeatures())) {
+                features.put(describe(feature.getId(), feature.getName(), feature.getPurposeDescription()));
+            }
+            result.put("features", features);
+        }
+        if (fields.contains("specialFeatures")) {
+            JSArray specialFeatures = new JSArray();
+            for (TCFSpecialFeature feature : nonNull(tcfData.getSpecialFeatures())) {
+                JSObject obj = describe(feature.getId(), feature.getName(), feature.getPurposeDescription());
+                putNullable(obj, "consent", feature.getConsent());
+                specialFeatures.put(obj);
+            }
+            result.put("specialFeatures", specialFeatures);
+        }
+        if (fields.contains("stacks")) {
+            JSArray stacks = new JSArray();
+            for (TCFStack stack : nonNull(tcfData.getStacks())) {
+                JSObject obj = describe(stack.getId(), stack.getName(), stack.getDescription());
+                obj.put("purposeIds", new JSArray(nonNull(stack.getPurposeIds())));
+                obj.put("specialFeatureIds", new JSArray(nonNull(stack.getSpecialFeatureIds())));
+                stacks.put(obj);
+            }
+            result.put("stacks", stacks);
+        }
+        return result;
+    }
+
+    public static JSArray mapVendors(List<TCFVendor> vendors, int from, int to, Set<String> fields) {
+        JSArray result = new JSArray();
+        for (int i = from; i < to; i++) {
+            result.put(mapVendor(vendors.get(i), fields));
+        }
+        return result;
+    }
+
+    public static JSObject mapVendor(TCFVendor vendor, Set<String> fields) {
+        JSObject obj = new JSObject();
+        if (fields.contains("id")) obj.put("id", vendor.getId());
+        if (fields.contains("name")) obj.put("name", vendor.getName());
+        if (fields.contains("consent")) putNullable(obj, "consent", vendor.getConsent());
+        if (fields.contains("legitimateInterestConsent")) putNullable(obj, "legitimateInterestConsent", vendor.getLegitimateInterestConsent());
+        if (fields.contains("purposes")) obj.put("purposes", ids(vendor.getPurposes()));
+        if (fields.contains("legitimateInterestPurposes")) obj.put("legitimateInterestPurposes", ids(vendor.getLegitimateInterestPurposes()));
+        if (fields.contains("specialPurposes")) obj.put("specialPurposes", ids(vendor.getSpecialPurposes()));
+        if (fields.contains("features")) obj.put("features", ids(vendor.getFeatures()));
+        if (fields.contains("specialFeatures")) obj.put("specialFeatures", ids(vendor.getSpecialFeatures()));
+        if (fields.contains("policyUrl")) obj.put("policyUrl", vendor.getPolicyUrl());
+        return obj;
+    }
+
+    private static JSObject describe(int id, String name, String description) {
+        JSObject obj = new JSObject();
+        obj.put("id", id);
+        obj.put("name", name);
+        obj.put("description", description);
+        return obj;
+    }
+
+    private static JSArray ids(List<IdAndName> values) {
+        JSArray result = new JSArray();
+        for (IdAndName value : nonNull(values)) {
+            result.put(value.getId());
+        }
+        return result;
+    }
+
+    private static void putNullable(JSObject obj, String key, Boolean value) {
+        obj.put(key, value != null ? value : JSONObject.NULL);
+    }
+
+    static <T> List<T> nonNull(List<T> values) {
+        return values != null ? values : Collections.emptyList();
+    }
+}
@@ -0,0 +1,121 @@
+package com.capacitor.usercentrics;
+
+import com.usercentrics.sdk.services.tcf.interfaces.IdAndName;
+import com.usercentrics.sdk.services.tcf.interfaces.TCFData;
+import com.usercentrics.sdk.services.tcf.interfaces.TCFStack;
+import com.usercentrics.sdk.services.tcf.interfaces.TCFVendor;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted indexes over one TCF snapshot, answering "which vendors rely on X" and
+ * "which purposes does stack Y bundle" without scanning the vendor list.
+ */
+public class TCFIndex {
+
+    public static final String PURPOSE = "purpose";
+    public static final String LEGITIMATE_INTEREST_PURPOSE = "legitimateInterestPurpose";
+    public static final String SPECIAL_PURPOSE = "specialPurpose";
+    public static final String FEATURE = "feature";
+    public static final String SPECIAL_FEATURE = "specialFeature";
+    public static final String STACK = "stack";
+
+    private static final int[] EMPTY = new int[0];
+
+    private final Map<String, Map<Integer, BitSet>> indexes = new HashMap<>();
+
+    TCFIndex() {
+        indexes.put(PURPOSE, new HashMap<>());
+        indexes.put(LEGITIMATE_INTEREST_PURPOSE, new HashMap<>());
+        indexes.put(SPECIAL_PURPOSE, new HashMap<>());
+        indexes.put(FEATURE, new HashMap<>());
+        indexes.put(SPECIAL_FEATURE, new HashMap<>());
+        indexes.put(STACK, new HashMap<>());
+    }
+
+    public static TCFIndex build(TCFData tcfData) {
+        TCFIndex index = new TCFIndex();
+        for (TCFVendor vendor : TCFDataMapper.nonNull(tcfData.getVendors())) {
+            int vendorId = vendor.getId();
+            index.addAll(PURPOSE, vendor.getPurposes(), vendorId);
+            index.addAll(LEGITIMATE_INTEREST_PURPOSE, vendor.getLegitimateInterestPurposes(), vendorId);
+            index.addAll(SPECIAL_PURPOSE, vendor.getSpecialPurposes(), vendorId);
+            index.addAll(FEATURE, vendor.getFeatures(), vendorId);
+            index.addAll(SPECIAL_FEATURE, vendor.getSpecialFeatures(), vendorId);
+        }
+        for (TCFStack stack : TCFDataMapper.nonNull(tcfData.getStacks())) {
+            for (Integer purposeId : TCFDataMapper.nonNull(stack.getPurposeIds())) {
+                index.add(STACK, stack.getId(), purposeId);
+            }
+        }
+        return index;
+    }
+
+    public static boolean isIndex(String name) {
+        return PURPOSE.equals(name) || LEGITIMATE_INTEREST_PURPOSE.equals(name) || SPECIAL_PURPOSE.equals(name) ||
+            FEATURE.equals(name) || SPECIAL_FEATURE.equals(name) || STACK.equals(name);
+    }
+
+    /**
+     * Returns the sorted ids indexed under the key: vendor ids for the purpose and feature
+     * indexes, purpose ids for the stack index.
+     */
+    public int[] lookup(String name, int key) {
+        Map<Integer, BitSet> index = indexes.get(name);
+        BitSet values = index != null ? index.get(key) : null;
+        if (values == null) return EMPTY;
+
+        int[] result = new int[values.cardinality()];
+        int position = 0;
+        for (int id = values.nextSetBit(0); id >= 0; id = values.nextSetBit(id + 1)) {
+            result[position++] = id;
+        }
+        return result;
+    }
+
+    private void addAll(String name, List<IdAndName> keys, int value) {
+        for (IdAndName key : TCFDataMapper.nonNull(keys)) {
+            add(name, key.getId(), value);
+        }
+    }
+
+    void add(String name, int key, int value) {
+        Map<Integer, BitSet> index = indexes.get(name);
+        BitSet values = index.get(key);
+        if (values == null) {
+            values = new BitSet();
+            index.put(key, values);
+        }
+        values.set(value);
+    }
+
+    /**
+     * Keeps the index of the latest TCF snapshot. The index is built once per snapshot
+     * version and rebuilt when the version changes.
+     */
+    static class Cache {
+
+        interface Builder {
+            TCFIndex build();
+        }
+
+        private TCFIndex index;
+        private long version = -1;
+
+        TCFIndex get(long snapshotVersion, Builder builder) {
+            synchronized (this) {
+                if (version == snapshotVersion) return index;
+            }
+            // Built outside the lock, a concurrent query at worst builds the same index twice
+            TCFIndex built = builder.build();
+            synchronized (this) {
+                index = built;
+                version = snapshotVersion;
+            }
+            return built;
+        }
+    }
+}
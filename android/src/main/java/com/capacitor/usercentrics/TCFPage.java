@@ -0,0 +1,78 @@
+package com.capacitor.usercentrics;
+
+import org.json.JSONObject;
+
+/**
+ * One page of the TCF vendor list. Cursors are {@code "<snapshot version>:<vendor offset>"},
+ * so a page requested against a snapshot that has since changed fails instead of mixing
+ * vendors of two consent states.
+ */
+public class TCFPage {
+
+    private final long version;
+    private final int offset;
+    private final int pageSize;
+
+    private TCFPage(long version, int offset, int pageSize) {
+        this.version = version;
+        this.offset = offset;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Parses the getTCFData paging options, a null cursor asks for the first page and a
+     * page size of 0 for all remaining vendors.
+     *
+     * @throws IllegalArgumentException with the message to reject the call with
+     */
+    public static TCFPage parse(String cursor, int pageSize) {
+        if (pageSize < 0) {
+            throw new IllegalArgumentException("Invalid pageSize");
+        }
+        if (cursor == null) {
+            return new TCFPage(-1, 0, pageSize);
+        }
+
+        int separator = cursor.indexOf(':');
+        long version;
+        int offset;
+        try {
+            version = Long.parseLong(cursor.substring(0, separator));
+            offset = Integer.parseInt(cursor.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (version < 0 || offset < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new TCFPage(version, offset, pageSize);
+    }
+
+    public boolean isFirst() {
+        return offset == 0;
+    }
+
+    /**
+     * Whether the page can be served from the snapshot with the given version.
+     */
+    public boolean matches(long snapshotVersion) {
+        return version < 0 || version == snapshotVersion;
+    }
+
+    public int from(int vendorCount) {
+        return Math.min(offset, vendorCount);
+    }
+
+    public int to(int vendorCount) {
+        int from = from(vendorCount);
+        return pageSize > 0 ? (int) Math.min((long) from + pageSize, vendorCount) : vendorCount;
+    }
+
+    /**
+     * The cursor of the following page, or JSONObject.NULL after the last one.
+     */
+    public Object nextCursor(long snapshotVersion, int vendorCount) {
+        int to = to(vendorCount);
+        return to < vendorCount ? snapshotVersion + ":" + to : JSONObject.NULL;
+    }
+}
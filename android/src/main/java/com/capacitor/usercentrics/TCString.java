@@ -0,0 +1,181 @@
+package com.capacitor.usercentrics;
+
+import java.util.BitSet;
+
+/**
+ * Decoded core segment of an IAB TCF v2 TC string. Purpose, special feature and vendor
+ * ids are 1-based and map directly to bit indexes.
+ */
+public class TCString {
+
+    private static final int BITS_PER_CHAR = 6;
+
+    final String source;
+    int version;
+    long created;
+    long lastUpdated;
+    int cmpId;
+    int cmpVersion;
+    int vendorListVersion;
+    int policyVersion;
+    boolean serviceSpecific;
+    boolean purposeOneTreatment;
+    final BitSet specialFeatureOptIns = new BitSet();
+    final BitSet purposeConsents = new BitSet();
+    final BitSet purposeLegitimateInterests = new BitSet();
+    final BitSet vendorConsents = new BitSet();
+    final BitSet vendorLegitimateInterests = new BitSet();
+
+    private TCString(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Decodes the core segment of a TC string, ignoring the optional segments.
+     *
+     * @throws IllegalArgumentException if the string is not a valid v2 core segment
+     */
+    public static TCString decode(String tcString) {
+        if (tcString == null || tcString.isEmpty()) {
+            throw new IllegalArgumentException("TC string is empty");
+        }
+        int end = tcString.indexOf('.');
+        BitReader reader = new BitReader(tcString, end < 0 ? tcString.length() : end);
+
+        TCString result = new TCString(tcString);
+        result.version = reader.readInt(6);
+        if (result.version != 2) {
+            throw new IllegalArgumentException("Unsupported TC string version " + result.version);
+        }
+        result.created = reader.readLong(36);
+        result.lastUpdated = reader.readLong(36);
+        result.cmpId = reader.readInt(12);
+        result.cmpVersion = reader.readInt(12);
+        reader.skip(6); // consent screen
+        reader.skip(12); // consent language
+        result.vendorListVersion = reader.readInt(12);
+        result.policyVersion = reader.readInt(6);
+        result.serviceSpecific = reader.readBool();
+        reader.skip(1); // use non-standard texts
+        reader.readBitField(12, result.specialFeatureOptIns);
+        reader.readBitField(24, result.purposeConsents);
+        reader.readBitField(24, result.purposeLegitimateInterests);
+        result.purposeOneTreatment = reader.readBool();
+        reader.skip(12); // publisher country code
+        reader.readVendorSection(result.vendorConsents);
+        reader.readVendorSection(result.vendorLegitimateInterests);
+        return result;
+    }
+
+    public boolean hasPurposeConsent(int purposeId) {
+        return purposeId > 0 && purposeConsents.get(purposeId);
+    }
+
+    public boolean hasVendorConsent(int vendorId) {
+        return vendorId > 0 && vendorConsents.get(vendorId);
+    }
+
+    public boolean hasSpecialFeatureOptIn(int featureId) {
+        return featureId > 0 && specialFeatureOptIns.get(featureId);
+    }
+
+    /**
+     * Whether the vendor may process data for every given purpose. A purpose is covered by
+     * consent (vendor and purpose consent) or, when allowed, by legitimate interest
+     * (vendor and purpose legitimate interest).
+     */
+    public boolean hasVendorConsent(int vendorId, int[] purposeIds, boolean allowLegitimateInterest) {
+        if (vendorId <= 0) return false;
+        boolean vendorConsent = vendorConsents.get(vendorId);
+        boolean vendorLegitimateInterest = allowLegitimateInterest && vendorLegitimateInterests.get(vendorId);
+        if (purposeIds == null || purposeIds.length == 0) {
+            return vendorConsent;
+        }
+        for (int purposeId : purposeIds) {
+            if (purposeId <= 0) return false;
+            boolean byConsent = vendorConsent && purposeConsents.get(purposeId);
+            boolean byLegitimateInterest = vendorLegitimateInterest && purposeLegitimateInterests.get(purposeId);
+            if (!byConsent && !byLegitimateInterest) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads big-endian bit fields straight from base64url characters.
+     */
+    static final class BitReader {
+        private final String data;
+        private final int limitBits;
+        private int position = 0;
+
+        BitReader(String data, int length) {
+            this.data = data;
+            this.limitBits = length * BITS_PER_CHAR;
+        }
+
+        boolean readBool() {
+            return readInt(1) == 1;
+        }
+
+        int readInt(int bits) {
+            return (int) readLong(bits);
+        }
+
+        long readLong(int bits) {
+            if (position + bits > limitBits) {
+                throw new IllegalArgumentException("TC string truncated at bit " + position);
+            }
+            long value = 0;
+            for (int i = 0; i < bits; i++) {
+                value = (value << 1) | bit(position++);
+            }
+            return value;
+        }
+
+        void skip(int bits) {
+            if (position + bits > limitBits) {
+                throw new IllegalArgumentException("TC string truncated at bit " + position);
+            }
+            position += bits;
+        }
+
+        void readBitField(int bits, BitSet target) {
+            for (int id = 1; id <= bits; id++) {
+                if (readBool()) target.set(id);
+            }
+        }
+
+        void readVendorSection(BitSet target) {
+            int maxVendorId = readInt(16);
+            boolean rangeEncoding = readBool();
+            if (!rangeEncoding) {
+                readBitField(maxVendorId, target);
+                return;
+            }
+            int entries = readInt(12);
+            for (int i = 0; i < entries; i++) {
+                boolean range = readBool();
+                int start = readInt(16);
+                int endInclusive = range ? readInt(16) : start;
+                if (start <= 0 || endInclusive < start || endInclusive > maxVendorId) {
+                    throw new IllegalArgumentException("Invalid vendor range " + start + "-" + endInclusive);
+                }
+                target.set(start, endInclusive + 1);
+            }
+        }
+
+        private int bit(int index) {
+            int sextet = decodeChar(data.charAt(index / BITS_PER_CHAR));
+            return (sextet >>> (BITS_PER_CHAR - 1 - index % BITS_PER_CHAR)) & 1;
+        }
+
+        private static int decodeChar(char c) {
+            if (c >= 'A' && c <= 'Z') return c - 'A';
+            if (c >= 'a' && c <= 'z') return c - 'a' + 26;
+            if (c >= '0' && c <= '9') return c - '0' + 52;
+            if (c == '-' || c == '+') return 62;
+            if (c == '_' || c == '/') return 63;
+            throw new IllegalArgumentException("Invalid TC string character '" + c + "'");
+        }
+    }
+}
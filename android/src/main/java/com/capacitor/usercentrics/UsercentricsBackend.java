@@ -0,0 +1,54 @@
+package com.capacitor.usercentrics;
+
+import android.content.Context;
+import com.usercentrics.sdk.UserDecision;
+import com.usercentrics.sdk.UsercentricsCMPData;
+import com.usercentrics.sdk.UsercentricsOptions;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+import com.usercentrics.sdk.models.settings.UsercentricsConsentType;
+import com.usercentrics.sdk.services.tcf.interfaces.TCFData;
+
+import java.util.List;
+
+/**
+ * The Usercentrics SDK calls made by {@link CapacitorUsercentrics}. Production code uses
+ * {@link UsercentricsSdkBackend}, tests and benchmarks substitute an in-process fake.
+ */
+public interface UsercentricsBackend {
+
+    interface ReadyListener {
+        void onReady(boolean shouldCollectConsent, List<UsercentricsServiceConsent> consents);
+        void onError(String error);
+    }
+
+    interface TCFDataListener {
+        void onTCFData(TCFData tcfData);
+    }
+
+    void initialize(Context context, UsercentricsOptions options);
+
+    void isReady(ReadyListener listener);
+
+    /**
+     * Whether the SDK instance is available, i.e. isReady has succeeded at least once.
+     */
+    boolean isAvailable();
+
+    void reset();
+
+    String getControllerId();
+
+    List<UsercentricsServiceConsent> getConsents();
+
+    UsercentricsCMPData getCMPData();
+
+    void restoreUserSession(String controllerId, ReadyListener listener);
+
+    void getTCFData(TCFDataListener listener);
+
+    List<UsercentricsServiceConsent> acceptAll(UsercentricsConsentType consentType);
+
+    List<UsercentricsServiceConsent> denyAll(UsercentricsConsentType consentType);
+
+    List<UsercentricsServiceConsent> saveDecisions(List<UserDecision> decisions, UsercentricsConsentType consentType);
+}
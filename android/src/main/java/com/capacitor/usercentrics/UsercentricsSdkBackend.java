@@ -0,0 +1,107 @@
+package com.capacitor.usercentrics;
+
+import android.content.Context;
+import com.usercentrics.sdk.UserDecision;
+import com.usercentrics.sdk.Usercentrics;
+import com.usercentrics.sdk.UsercentricsCMPData;
+import com.usercentrics.sdk.UsercentricsOptions;
+import com.usercentrics.sdk.UsercentricsReadyStatus;
+import com.usercentrics.sdk.UsercentricsSDK;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+import com.usercentrics.sdk.errors.UsercentricsError;
+import com.usercentrics.sdk.models.settings.UsercentricsConsentType;
+import com.usercentrics.sdk.services.tcf.interfaces.TCFData;
+
+import java.util.List;
+
+/**
+ * {@link UsercentricsBackend} backed by the real Usercentrics SDK.
+ */
+public class UsercentricsSdkBackend implements UsercentricsBackend {
+
+    private volatile UsercentricsSDK instance;
+
+    @Override
+    public void initialize(Context context, UsercentricsOptions options) {
+        Usercentrics.initialize(context, options);
+    }
+
+    @Override
+    public void isReady(ReadyListener listener) {
+        Usercentrics.isReady(
+            (UsercentricsReadyStatus status) -> {
+                instance = Usercentrics.getInstance();
+                listener.onReady(status.getShouldCollectConsent(), status.getConsents());
+                return null;
+            },
+            (UsercentricsError error) -> {
+                listener.onError(error.getMessage());
+                return null;
+            }
+        );
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return instance != null;
+    }
+
+    @Override
+    public void reset() {
+        // Unavailable until the next configure/isReady
+        instance = null;
+        Usercentrics.reset();
+    }
+
+    @Override
+    public String getControllerId() {
+        return instance.getControllerId();
+    }
+
+    @Override
+    public List<UsercentricsServiceConsent> getConsents() {
+        return instance.getConsents();
+    }
+
+    @Override
+    public UsercentricsCMPData getCMPData() {
+        return instance.getCMPData();
+    }
+
+    @Override
+    public void restoreUserSession(String controllerId, ReadyListener listener) {
+        instance.restoreUserSession(controllerId,
+            (UsercentricsReadyStatus status) -> {
+                listener.onReady(status.getShouldCollectConsent(), status.getConsents());
+                return null;
+            },
+            (UsercentricsError error) -> {
+                listener.onError(error.getMessage());
+                return null;
+            }
+        );
+    }
+
+    @Override
+    public void getTCFData(TCFDataListener listener) {
+        instance.getTCFData((TCFData tcfData) -> {
+            listener.onTCFData(tcfData);
+            return null;
+        });
+    }
+
+    @Override
+    public List<UsercentricsServiceConsent> acceptAll(UsercentricsConsentType consentType) {
+        return instance.acceptAll(consentType);
+    }
+
+    @Override
+    public List<UsercentricsServiceConsent> denyAll(UsercentricsConsentType consentType) {
+        return instance.denyAll(consentType);
+    }
+
+    @Override
+    public List<UsercentricsServiceConsent> saveDecisions(List<UserDecision> decisions, UsercentricsConsentType consentType) {
+        return instance.saveDecisions(decisions, consentType);
+    }
+}
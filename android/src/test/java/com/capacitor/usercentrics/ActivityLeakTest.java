@@ -0,0 +1,234 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.content.Context;
+import com.getcapacitor.JSObject;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Recreates the Activity the way rotations and process restarts do and checks that nothing
+ * outlives the destroy: neither a plugin that stays loaded across the Activities, nor the
+ * threads of one that is destroyed with its Activity.
+ */
+public class ActivityLeakTest {
+
+    private static final int RECREATIONS = 200;
+    private static final int VIEW_TREE_BYTES = 256 * 1024;
+
+    static class FakeActivity extends Activity {
+        // Stands in for the view tree a real Activity keeps alive
+        final byte[] viewTree = new byte[VIEW_TREE_BYTES];
+        private final Context application;
+
+        FakeActivity(Context application) {
+            this.application = application;
+        }
+
+        @Override
+        public Context getApplicationContext() {
+            return application;
+        }
+
+        @Override
+        public void runOnUiThread(Runnable action) {
+            action.run();
+        }
+    }
+
+    static class BannerResult implements CapacitorUsercentrics.BannerCallback {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile String error;
+
+        @Override
+        public void onSuccess(JSObject result) {
+            done.countDown();
+        }
+
+        @Override
+        public void onError(String message) {
+            error = message;
+            done.countDown();
+        }
+    }
+
+    private FakeContext application;
+
+    @Before
+    public void setUp() throws IOException {
+        application = new FakeContext();
+    }
+
+    @After
+    public void tearDown() {
+        application.delete();
+    }
+
+    @Test
+    public void retainedHeapStaysFlatAcrossRecreations() throws Exception {
+        // One plugin outlives every Activity, so only its own references can keep them alive
+        FakeActivity first = new FakeActivity(application);
+        CapacitorUsercentrics implementation = new CapacitorUsercentrics(new FakeUsercentricsBackend(20, 3));
+        CapacitorUsercentricsPlugin plugin = new CapacitorUsercentricsPlugin(implementation);
+        plugin.attach(first);
+        configure(implementation);
+        implementation.releaseActivity(first);
+
+        List<WeakReference<Activity>> destroyed = new ArrayList<>();
+        long baseline = 0;
+        for (int i = 0; i < RECREATIONS; i++) {
+            destroyed.add(recreate(implementation));
+            if (i == 20) {
+                baseline = retainedHeap();
+            }
+        }
+        long growth = retainedHeap() - baseline;
+        plugin.detach(first);
+
+        int alive = 0;
+        for (WeakReference<Activity> ref : destroyed) {
+            if (ref.get() != null) alive++;
+        }
+        assertEquals(0, alive);
+        // Retaining even a tenth of the Activities would add several MB
+        assertTrue("retained heap grew by " + growth + " bytes", growth < (RECREATIONS / 10) * (long) VIEW_TREE_BYTES);
+    }
+
+    @Test
+    public void destroyStopsEveryThread() throws Exception {
+        int before = liveThreads();
+        FakeActivity activity = new FakeActivity(application);
+        CapacitorUsercentrics implementation = new CapacitorUsercentrics(new FakeUsercentricsBackend(20, 3));
+        CapacitorUsercentricsPlugin plugin = new CapacitorUsercentricsPlugin(implementation);
+        plugin.attach(activity);
+
+        // Starts the init, applier, watchdog, session cache and SDK init threads
+        implementation.getConsentApplierRegistry().register(FakeUsercentricsBackend.templateId(0), consent -> {});
+        for (int i = 0; i < 20; i++) {
+            implementation.getSdkInitScheduler().register(FakeUsercentricsBackend.templateId(i), 0, false, () -> {});
+        }
+        configure(implementation);
+        // Starts the batch window timer, the batch is still open when the plugin is destroyed
+        CountDownLatch saved = new CountDownLatch(1);
+        implementation.saveConsent(FakeUsercentricsBackend.generateConsentPayload(2, 7), false, 60_000, new CapacitorUsercentrics.ConsentsCallback() {
+            @Override
+            public void onSuccess(JSObject consents) {
+                saved.countDown();
+            }
+
+            @Override
+            public void onError(String error) {
+                saved.countDown();
+            }
+        });
+        assertTrue(liveThreads() > before);
+
+        plugin.detach(activity);
+
+        assertTrue("batched save not failed on destroy", saved.await(5, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (liveThreads() > before && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(before, liveThreads());
+    }
+
+    @Test
+    public void pendingBannerIsRejectedWhenActivityIsDestroyed() throws Exception {
+        FakeActivity activity = new FakeActivity(application);
+        CapacitorUsercentrics implementation = new CapacitorUsercentrics(new FakeUsercentricsBackend(20, 3));
+        CapacitorUsercentricsPlugin plugin = new CapacitorUsercentricsPlugin(implementation);
+        plugin.attach(activity);
+        configure(implementation);
+
+        BannerResult banner = new BannerResult();
+        implementation.showBanner(banner);
+        plugin.detach(activity);
+
+        assertTrue(banner.done.await(5, TimeUnit.SECONDS));
+        assertEquals("Activity destroyed before the banner was answered", banner.error);
+    }
+
+    // Kept out of the test method so no stack slot holds on to the Activity
+    private WeakReference<Activity> recreate(CapacitorUsercentrics implementation) throws Exception {
+        FakeActivity activity = new FakeActivity(application);
+        // What handleOnResume hands over, the banner is built for this Activity
+        implementation.setActivity(activity);
+        implementation.preloadBanner(new CapacitorUsercentrics.Callback() {
+            @Override
+            public void onSuccess() {}
+
+            @Override
+            public void onError(String error) {
+                throw new AssertionError(error);
+            }
+        });
+        // The user rotates the device while the banner is showing
+        BannerResult banner = new BannerResult();
+        implementation.showBanner(banner);
+        // What handleOnPause does for a finishing Activity
+        implementation.releaseActivity(activity);
+        assertTrue(banner.done.await(5, TimeUnit.SECONDS));
+        return new WeakReference<>(activity);
+    }
+
+    private static void configure(CapacitorUsercentrics implementation) throws InterruptedException {
+        JSObject options = new JSObject();
+        options.put("settingsId", "settings");
+        CountDownLatch ready = new CountDownLatch(1);
+        implementation.configure(options, new CapacitorUsercentrics.Callback() {
+            @Override
+            public void onSuccess() {
+                implementation.isReady(new CapacitorUsercentrics.ReadyCallback() {
+                    @Override
+                    public void onSuccess(JSObject status) {
+                        ready.countDown();
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        ready.countDown();
+                    }
+                });
+            }
+
+            @Override
+            public void onError(String error) {
+                ready.countDown();
+            }
+        });
+        assertTrue(ready.await(5, TimeUnit.SECONDS));
+    }
+
+    private static int liveThreads() {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.isAlive() && thread.getName().startsWith("Usercentrics")) count++;
+        }
+        return count;
+    }
+
+    private static long retainedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,65 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+public class BatchRunnerTest {
+
+    private static JSObject op(String method) {
+        JSObject op = new JSObject();
+        op.put("method", method);
+        return op;
+    }
+
+    @Test
+    public void sharesConsentsAcrossOperations() throws Exception {
+        FakeUsercentricsBackend backend = new FakeUsercentricsBackend(10, 3);
+        backend.isReady(new UsercentricsBackend.ReadyListener() {
+            @Override
+            public void onReady(boolean shouldCollectConsent, List<UsercentricsServiceConsent> consents) {}
+
+            @Override
+            public void onError(String error) {}
+        });
+        CapacitorUsercentrics implementation = new CapacitorUsercentrics(backend);
+
+        JSArray ops = new JSArray();
+        ops.put(op("getConsents"));
+        ops.put(op("saveUserSession"));
+        ops.put(op("getConsents"));
+        ops.put(op("acceptAll"));
+        JSObject[] response = new JSObject[1];
+        implementation.batch(ops, new CapacitorUsercentrics.CMPDataCallback() {
+            @Override
+            public void onSuccess(JSObject data) {
+                response[0] = data;
+            }
+
+            @Override
+            public void onError(String error) {
+                throw new AssertionError(error);
+            }
+        });
+
+        assertNotNull(response[0]);
+        assertEquals(10, response[0].getJSONObject("shared").getJSONArray("consents").length());
+        JSONArray results = response[0].getJSONArray("results");
+        assertEquals(4, results.length());
+        JSONObject first = results.getJSONObject(0);
+        assertTrue(first.getBoolean("ok"));
+        assertEquals(BatchRunner.SHARED_CONSENTS_REF, first.getJSONObject("value").getString("consents"));
+        assertEquals(BatchRunner.SHARED_CONSENTS_REF, results.getJSONObject(2).getJSONObject("value").getString("consents"));
+        assertFalse(results.getJSONObject(3).getBoolean("ok"));
+    }
+}
@@ -0,0 +1,277 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.json.JSONObject;
+import org.junit.Test;
+
+public class CMPDataMapperTest {
+
+    private static class FakeSettings implements CMPDataMapper.Settings {
+        String version = "3.0.1";
+        String language = "en";
+
+        @Override
+        public String getSettingsId() {
+            return "settings-1";
+        }
+
+        @Override
+        public String getVersion() {
+            return version;
+        }
+
+        @Override
+        public String getLanguage() {
+            return language;
+        }
+
+        @Override
+        public List<String> getLanguagesAvailable() {
+            return Arrays.asList("en", "de");
+        }
+
+        @Override
+        public String getPrivacyPolicyUrl() {
+            return "https://example.com/privacy";
+        }
+
+        @Override
+        public String getImprintUrl() {
+            return null;
+        }
+
+        @Override
+        public boolean getTcf2Enabled() {
+            return true;
+        }
+    }
+
+    private static class FakeService implements CMPDataMapper.Service {
+        private final String templateId;
+        private final Boolean essential;
+
+        FakeService(String templateId, Boolean essential) {
+            this.templateId = templateId;
+            this.essential = essential;
+        }
+
+        @Override
+        public String getTemplateId() {
+            return templateId;
+        }
+
+        @Override
+        public String getVersion() {
+            return "1.2.0";
+        }
+
+        @Override
+        public String getDataProcessor() {
+            return "Processor " + templateId;
+        }
+
+        @Override
+        public String getCategorySlug() {
+            return essential != null && essential ? "essential" : "marketing";
+        }
+
+        @Override
+        public String getNameOfProcessingCompany() {
+            return "Company " + templateId;
+        }
+
+        @Override
+        public String getDescriptionOfService() {
+            return "Description " + templateId;
+        }
+
+        @Override
+        public Boolean isEssential() {
+            return essential;
+        }
+
+        @Override
+        public Boolean isHidden() {
+            return false;
+        }
+
+        @Override
+        public Boolean getDefaultConsentStatus() {
+            return null;
+        }
+
+        @Override
+        public List<String> getLegalBasisList() {
+            return essential != null && essential ? Collections.singletonList("Art. 6 (1) (f) GDPR") : null;
+        }
+    }
+
+    private static class FakeCategory implements CMPDataMapper.Category {
+        private final String slug;
+        private final boolean essential;
+
+        FakeCategory(String slug, boolean essential) {
+            this.slug = slug;
+            this.essential = essential;
+        }
+
+        @Override
+        public String getCategorySlug() {
+            return slug;
+        }
+
+        @Override
+        public String getLabel() {
+            return "Label " + slug;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Description " + slug;
+        }
+
+        @Override
+        public boolean isEssential() {
+            return essential;
+        }
+
+        @Override
+        public boolean isHidden() {
+            return false;
+        }
+    }
+
+    private static class FakeSource implements CMPDataMapper.Source {
+        FakeSettings settings = new FakeSettings();
+        List<CMPDataMapper.Service> services = new ArrayList<>();
+        List<CMPDataMapper.Category> categories = new ArrayList<>();
+        int serviceReads = 0;
+
+        FakeSource() {
+            services.add(new FakeService("tmpl-essential", true));
+            services.add(new FakeService("tmpl-marketing", null));
+            categories.add(new FakeCategory("essential", true));
+            categories.add(new FakeCategory("marketing", false));
+        }
+
+        @Override
+        public CMPDataMapper.Settings getSettings() {
+            return settings;
+        }
+
+        @Override
+        public List<CMPDataMapper.Service> getServices() {
+            serviceReads++;
+            return services;
+        }
+
+        @Override
+        public List<CMPDataMapper.Category> getCategories() {
+            return categories;
+        }
+    }
+
+    @Test
+    public void mapsSettings() throws Exception {
+        JSObject settings = (JSObject) new CMPDataMapper(new FakeSource()).section("settings");
+
+        assertEquals("settings-1", settings.getString("settingsId"));
+        assertEquals("3.0.1", settings.getString("version"));
+        assertEquals("en", settings.getString("language"));
+        assertEquals(2, settings.getJSONArray("languagesAvailable").length());
+        assertEquals("de", settings.getJSONArray("languagesAvailable").getString(1));
+        assertEquals("https://example.com/privacy", settings.getString("privacyPolicyUrl"));
+        assertFalse(settings.has("imprintUrl"));
+        assertTrue(settings.getBoolean("tcf2Enabled"));
+    }
+
+    @Test
+    public void mapsServices() throws Exception {
+        JSArray services = (JSArray) new CMPDataMapper(new FakeSource()).section("services");
+
+        assertEquals(2, services.length());
+        JSONObject essential = services.getJSONObject(0);
+        assertEquals("tmpl-essential", essential.getString("templateId"));
+        assertEquals("1.2.0", essential.getString("version"));
+        assertEquals("Processor tmpl-essential", essential.getString("dataProcessor"));
+        assertEquals("essential", essential.getString("categorySlug"));
+        assertEquals("Company tmpl-essential", essential.getString("nameOfProcessingCompany"));
+        assertEquals("Description tmpl-essential", essential.getString("description"));
+        assertTrue(essential.getBoolean("isEssential"));
+        assertFalse(essential.getBoolean("isHidden"));
+        // Unknown flags stay explicit nulls, not missing keys
+        assertTrue(essential.isNull("defaultConsentStatus"));
+        assertTrue(services.getJSONObject(1).isNull("isEssential"));
+        assertFalse(essential.has("legalBasisList"));
+    }
+
+    @Test
+    public void mapsCategories() throws Exception {
+        JSArray categories = (JSArray) new CMPDataMapper(new FakeSource()).section("categories");
+
+        assertEquals(2, categories.length());
+        JSONObject marketing = categories.getJSONObject(1);
+        assertEquals("marketing", marketing.getString("categorySlug"));
+        assertEquals("Label marketing", marketing.getString("label"));
+        assertEquals("Description marketing", marketing.getString("description"));
+        assertFalse(marketing.getBoolean("isEssential"));
+        assertFalse(marketing.getBoolean("isHidden"));
+    }
+
+    @Test
+    public void mapsLegalBasisByTemplateId() throws Exception {
+        JSObject legalBasis = (JSObject) new CMPDataMapper(new FakeSource()).section("legalBasis");
+
+        assertEquals(1, legalBasis.getJSONArray("tmpl-essential").length());
+        assertEquals("Art. 6 (1) (f) GDPR", legalBasis.getJSONArray("tmpl-essential").getString(0));
+        assertEquals(0, legalBasis.getJSONArray("tmpl-marketing").length());
+    }
+
+    @Test
+    public void mapsEachSectionOnce() {
+        FakeSource source = new FakeSource();
+        CMPDataMapper mapper = new CMPDataMapper(source);
+
+        Object services = mapper.section("services");
+        long bytes = mapper.getEstimatedBytes();
+
+        assertSame(services, mapper.section("services"));
+        assertEquals(1, source.serviceReads);
+        assertTrue(bytes > 0);
+        assertEquals(bytes, mapper.getEstimatedBytes());
+    }
+
+    @Test
+    public void versionFollowsSettingsAndLanguage() {
+        FakeSource source = new FakeSource();
+        assertEquals("settings-1@3.0.1/en", CMPDataMapper.versionOf(source));
+
+        source.settings.language = "de";
+        assertEquals("settings-1@3.0.1/de", CMPDataMapper.versionOf(source));
+
+        source.settings = null;
+        assertEquals("", CMPDataMapper.versionOf(source));
+    }
+
+    @Test
+    public void rejectsUnknownSection() {
+        try {
+            new CMPDataMapper(new FakeSource()).section("vendors");
+            fail("mapped an unknown section");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unknown CMP data section: vendors", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompactConsentTest {
+
+    @Before
+    public void setUp() {
+        CompactConsent.clearPool();
+    }
+
+    @After
+    public void tearDown() {
+        CompactConsent.clearPool();
+    }
+
+    @Test
+    public void internReturnsPooledInstance() {
+        String first = CompactConsent.intern(new String("tmpl-1"));
+        assertSame(first, CompactConsent.intern(new String("tmpl-1")));
+        assertSame(first, CompactConsent.of(new String("tmpl-1"), true, null, null, false).templateId);
+    }
+
+    @Test
+    public void poolStopsGrowingAtItsBound() {
+        for (int i = 0; i < CompactConsent.MAX_POOLED * 2; i++) {
+            CompactConsent.intern("js-" + i);
+        }
+        assertEquals(CompactConsent.MAX_POOLED, CompactConsent.poolSize());
+
+        // Values already pooled are still shared
+        String pooled = CompactConsent.intern(new String("js-0"));
+        assertSame(pooled, CompactConsent.intern(new String("js-0")));
+    }
+
+    @Test
+    public void clearPoolEmptiesIt() {
+        CompactConsent.intern("tmpl-1");
+        CompactConsent.clearPool();
+        assertEquals(0, CompactConsent.poolSize());
+    }
+}
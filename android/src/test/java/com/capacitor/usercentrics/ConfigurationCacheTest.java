@@ -0,0 +1,60 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import com.getcapacitor.JSObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConfigurationCacheTest {
+
+    private ConfigurationCache cache;
+    private List<JSObject> evicted;
+
+    @Before
+    public void setUp() {
+        cache = new ConfigurationCache(2, Long.MAX_VALUE);
+        evicted = new ArrayList<>();
+        cache.setEvictionListener(evicted::add);
+    }
+
+    @Test
+    public void switchingBackReusesPreparedState() {
+        ConfigurationCache.Prepared eu = cache.activate("eu|||en");
+        cache.activate("us|||en");
+
+        assertSame(eu, cache.activate("eu|||en"));
+        assertSame(eu, cache.getActive());
+        assertEquals(0, evicted.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        ConfigurationCache.Prepared eu = cache.activate("eu|||en");
+        cache.activate("us|||en");
+        // eu becomes the most recently used, us is the eviction candidate
+        cache.activate("eu|||en");
+        cache.activate("br|||pt");
+
+        assertEquals(1, evicted.size());
+        assertSame(eu, cache.activate("eu|||en"));
+        cache.activate("us|||en");
+        assertEquals(2, evicted.size());
+    }
+
+    @Test
+    public void neverEvictsActiveConfiguration() {
+        ConfigurationCache.Prepared eu = cache.activate("eu|||en");
+        cache.setLimits(1, Long.MAX_VALUE);
+        assertEquals(0, evicted.size());
+
+        cache.activate("us|||en");
+        assertEquals(1, evicted.size());
+        assertNotSame(eu, cache.activate("eu|||en"));
+    }
+}
@@ -0,0 +1,197 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSObject;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConsentApplierRegistryTest {
+
+    private final BlockingQueue<JSObject> reports = new LinkedBlockingQueue<>();
+    private ConsentApplierRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = new ConsentApplierRegistry();
+        registry.setReportListener(reports::add);
+    }
+
+    @After
+    public void tearDown() {
+        registry.shutdown();
+    }
+
+    private static UsercentricsServiceConsent consent(String templateId, boolean status) {
+        return CompactConsent.serviceConsent(templateId, status, null, "1.0.0", false);
+    }
+
+    // Outcome per templateId of the next report
+    private Map<String, String> nextReport() throws Exception {
+        JSObject report = reports.poll(5, TimeUnit.SECONDS);
+        assertNotNull("no report", report);
+        JSONArray results = report.getJSONArray("results");
+        Map<String, String> outcomes = new HashMap<>();
+        for (int i = 0; i < results.length(); i++) {
+            JSONObject result = results.getJSONObject(i);
+            outcomes.put(result.getString("templateId"), result.getString("outcome"));
+        }
+        return outcomes;
+    }
+
+    @Test
+    public void skipsUnchangedConsents() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        registry.register("sdk", consent -> runs.incrementAndGet());
+        List<UsercentricsServiceConsent> granted = Arrays.asList(consent("sdk", true));
+
+        registry.applyAsync(granted, false);
+        assertEquals("applied", nextReport().get("sdk"));
+        registry.applyAsync(granted, false);
+        assertNull(reports.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, runs.get());
+
+        // A changed status or force goes through
+        registry.applyAsync(Arrays.asList(consent("sdk", false)), false);
+        assertEquals("applied", nextReport().get("sdk"));
+        registry.applyAsync(Arrays.asList(consent("sdk", false)), true);
+        assertEquals("applied", nextReport().get("sdk"));
+        assertEquals(3, runs.get());
+    }
+
+    @Test
+    public void retriesAfterFailure() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        registry.register("sdk", consent -> {
+            if (runs.incrementAndGet() == 1) throw new IllegalStateException("not ready");
+        });
+        List<UsercentricsServiceConsent> granted = Arrays.asList(consent("sdk", true));
+
+        registry.applyAsync(granted, false);
+        assertEquals("failed", nextReport().get("sdk"));
+        registry.applyAsync(granted, false);
+        assertEquals("applied", nextReport().get("sdk"));
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void retriesAfterTimeout() throws Exception {
+        registry.setTimeoutMillis(50);
+        AtomicInteger runs = new AtomicInteger();
+        registry.register("sdk", consent -> {
+            if (runs.incrementAndGet() == 1) Thread.sleep(5000);
+        });
+        List<UsercentricsServiceConsent> granted = Arrays.asList(consent("sdk", true));
+
+        registry.applyAsync(granted, false);
+        assertEquals("timeout", nextReport().get("sdk"));
+        registry.applyAsync(granted, false);
+        assertEquals("applied", nextReport().get("sdk"));
+    }
+
+    @Test
+    public void retriesRejectedServices() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<UsercentricsServiceConsent> consents = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String templateId = "sdk-" + i;
+            registry.register(templateId, consent -> release.await());
+            consents.add(consent(templateId, true));
+        }
+
+        // More than the pool and its queue hold while every applier blocks
+        registry.applyAsync(consents, false);
+        release.countDown();
+        Set<String> rejected = new HashSet<>();
+        for (Map.Entry<String, String> outcome : nextReport().entrySet()) {
+            if ("rejected".equals(outcome.getValue())) rejected.add(outcome.getKey());
+        }
+        assertFalse(rejected.isEmpty());
+
+        // Only the rejected ones are applied again
+        registry.applyAsync(consents, false);
+        Map<String, String> retried = nextReport();
+        assertEquals(rejected, retried.keySet());
+        assertFalse(retried.containsValue("rejected"));
+    }
+
+    @Test
+    public void laterStateIsAppliedLast() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Boolean> applied = new CopyOnWriteArrayList<>();
+        registry.register("sdk", consent -> {
+            // The grant is still running when the deny arrives
+            if (consent) release.await();
+            applied.add(consent);
+        });
+
+        registry.applyAsync(Arrays.asList(consent("sdk", true)), false);
+        registry.applyAsync(Arrays.asList(consent("sdk", false)), false);
+        // The deny must not start while the grant is running
+        assertNull(reports.poll(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+
+        assertEquals("applied", nextReport().get("sdk"));
+        assertEquals("applied", nextReport().get("sdk"));
+        assertEquals(Arrays.asList(true, false), applied);
+    }
+
+    @Test
+    public void waitingStateIsSupersededByNewerOne() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> applied = new CopyOnWriteArrayList<>();
+        registry.register("sdk", consent -> {
+            if (applied.isEmpty()) release.await();
+            applied.add(consent ? "granted" : "denied");
+        });
+        registry.applyAsync(Arrays.asList(consent("sdk", true)), false);
+        registry.applyAsync(Arrays.asList(consent("sdk", false)), false);
+        registry.applyAsync(Arrays.asList(CompactConsent.serviceConsent("sdk", true, null, "2.0.0", false)), false);
+
+        // The deny never ran, the newest grant replaced it
+        assertEquals("superseded", nextReport().get("sdk"));
+        release.countDown();
+        assertEquals("applied", nextReport().get("sdk"));
+        assertEquals("applied", nextReport().get("sdk"));
+        assertEquals(Arrays.asList("granted", "granted"), applied);
+    }
+
+    @Test
+    public void timeoutCancelsApplierThatStartsImmediately() throws Exception {
+        registry.setTimeoutMillis(20);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        registry.register("sdk", consent -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        });
+        registry.applyAsync(Arrays.asList(consent("sdk", true)), false);
+        assertEquals("timeout", nextReport().get("sdk"));
+        assertTrue("applier not interrupted", interrupted.await(1, TimeUnit.SECONDS));
+    }
+}
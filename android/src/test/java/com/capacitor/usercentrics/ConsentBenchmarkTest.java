@@ -0,0 +1,135 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConsentBenchmarkTest {
+
+    private static final int SERVICES = 80;
+    private static final long SEED = 42;
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 5_000;
+
+    private static final CapacitorUsercentrics.ConsentsCallback NO_OP = new CapacitorUsercentrics.ConsentsCallback() {
+        @Override
+        public void onSuccess(JSObject result) {}
+
+        @Override
+        public void onError(String error) {
+            throw new AssertionError(error);
+        }
+    };
+
+    private FakeUsercentricsBackend backend;
+    private CapacitorUsercentrics implementation;
+    private JSObject payload;
+
+    @Before
+    public void setUp() {
+        backend = new FakeUsercentricsBackend(SERVICES, SEED);
+        implementation = new CapacitorUsercentrics(backend);
+        backend.isReady(new UsercentricsBackend.ReadyListener() {
+            @Override
+            public void onReady(boolean shouldCollectConsent, List<UsercentricsServiceConsent> consents) {}
+
+            @Override
+            public void onError(String error) {}
+        });
+        for (int i = 0; i < SERVICES; i++) {
+            implementation.getConsentApplierRegistry().register(FakeUsercentricsBackend.templateId(i), consent -> {});
+        }
+        payload = FakeUsercentricsBackend.generateConsentPayload(SERVICES, SEED);
+    }
+
+    @Test
+    public void consentSerializationUncached() throws Exception {
+        List<UsercentricsServiceConsent> consents = backend.getConsents();
+        MicroBenchmark.measure("consentSerialization.uncached", WARMUP, ITERATIONS, () -> ConsentSerializer.toJSArray(consents));
+        assertEquals(SERVICES, ConsentSerializer.toJSArray(consents).length());
+    }
+
+    @Test
+    public void consentSerializationCached() throws Exception {
+        ConsentSerializer serializer = new ConsentSerializer(new PluginMetrics());
+        ConsentSerializer.ConsentSource source = backend::getConsents;
+        JSArray first = serializer.serialize(source);
+        MicroBenchmark.measure("consentSerialization.cached", WARMUP, ITERATIONS, () -> serializer.serialize(source));
+        assertSame(first, serializer.serialize(source));
+    }
+
+    @Test
+    public void parseConsentPayload() throws Exception {
+        MicroBenchmark.measure("parseConsents", WARMUP, ITERATIONS, () -> ConsentPayloadParser.parse(payload, true));
+        assertEquals(SERVICES, ConsentPayloadParser.parse(payload, true).consents.size());
+    }
+
+    @Test
+    public void applyConsentUnchanged() throws Exception {
+        // The first pass records the applied state, the measured passes skip every service
+        implementation.applyConsent(payload, false, NO_OP);
+        MicroBenchmark.measure("applyConsentToSDKs.unchanged", WARMUP, ITERATIONS, () -> {
+            implementation.applyConsent(payload, false, NO_OP);
+            return null;
+        });
+    }
+
+    @Test
+    public void consentHeap() throws Exception {
+        // Every round gets fresh strings, as consents arriving over the bridge do
+        long legacy = MicroBenchmark.retainedBytes("consentHeap.legacy", 200, () -> {
+            List<UsercentricsServiceConsent> consents = new ArrayList<>(SERVICES);
+            for (UsercentricsServiceConsent consent : FakeUsercentricsBackend.generateConsents(SERVICES, SEED)) {
+                consents.add(new UsercentricsServiceConsent(
+                    consent.getTemplateId(), consent.getStatus(), new ArrayList<>(), null,
+                    consent.getDataProcessor(), consent.getVersion(), consent.isEssential()
+                ));
+            }
+            return consents;
+        });
+        // What the parser, the session cache and the consent log hand to the rest of the plugin
+        long pooled = MicroBenchmark.retainedBytes("consentHeap.pooled", 200, () -> {
+            List<UsercentricsServiceConsent> consents = new ArrayList<>(SERVICES);
+            for (UsercentricsServiceConsent consent : FakeUsercentricsBackend.generateConsents(SERVICES, SEED)) {
+                consents.add(CompactConsent.serviceConsent(
+                    consent.getTemplateId(), consent.getStatus(), consent.getDataProcessor(), consent.getVersion(), consent.isEssential()
+                ));
+            }
+            return consents;
+        });
+        // What the save batcher holds while its window is open
+        long compact = MicroBenchmark.retainedBytes("consentHeap.compact", 200, () -> {
+            List<CompactConsent> consents = new ArrayList<>(SERVICES);
+            for (UsercentricsServiceConsent consent : FakeUsercentricsBackend.generateConsents(SERVICES, SEED)) {
+                consents.add(CompactConsent.from(consent));
+            }
+            return consents;
+        });
+        assertTrue("pooled " + pooled + " bytes vs legacy " + legacy, pooled * 2 < legacy);
+        assertTrue("compact " + compact + " bytes vs legacy " + legacy, compact * 2 < legacy);
+    }
+
+    @Test
+    public void decodeTCString() throws Exception {
+        String encoded = TCStringFixture.random(1000, SEED, true);
+        MicroBenchmark.measure("tcString.decode", WARMUP, ITERATIONS, () -> TCString.decode(encoded));
+    }
+
+    @Test
+    public void saveConsent() throws Exception {
+        MicroBenchmark.measure("saveConsent", WARMUP, ITERATIONS, () -> {
+            implementation.saveConsent(payload, false, 0, NO_OP);
+            return null;
+        });
+        assertEquals(WARMUP + 5 * ITERATIONS, backend.getSaveDecisionsCalls());
+    }
+}
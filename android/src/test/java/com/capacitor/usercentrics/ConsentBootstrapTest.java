@@ -0,0 +1,105 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConsentBootstrapTest {
+
+    private FakeContext context;
+    private ConsentBootstrap bootstrap;
+
+    @Before
+    public void setUp() throws IOException {
+        context = new FakeContext();
+        bootstrap = new ConsentBootstrap(context);
+    }
+
+    @After
+    public void tearDown() {
+        context.delete();
+    }
+
+    // The state object the script assigns before adding tcString and isGranted
+    private static JSONObject renderedState(String script) throws Exception {
+        int start = script.indexOf("var s=") + "var s=".length();
+        int end = script.indexOf(";s.tcString=");
+        assertTrue(start > 0 && end > start);
+        return new JSONObject(script.substring(start, end));
+    }
+
+    private static boolean isGranted(JSONObject state, String templateId) throws Exception {
+        JSONArray templateIds = state.getJSONArray("templateIds");
+        JSONArray bitmap = state.getJSONArray("bitmap");
+        for (int i = 0; i < templateIds.length(); i++) {
+            if (templateIds.getString(i).equals(templateId)) {
+                return ((bitmap.getInt(i >>> 5) >>> (i & 31)) & 1) == 1;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void noScriptBeforeStoreOrAfterClear() {
+        assertNull(bootstrap.script());
+
+        bootstrap.store("controller", FakeUsercentricsBackend.generateConsents(3, 1));
+        bootstrap.clear();
+        assertNull(bootstrap.script());
+    }
+
+    @Test
+    public void rendersStoredState() throws Exception {
+        // More than one bitmap word
+        List<UsercentricsServiceConsent> consents = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            consents.add(CompactConsent.serviceConsent("tmpl-" + i, i % 3 == 0, null, "1.0.0", false));
+        }
+        bootstrap.store("controller-1", consents);
+
+        String script = bootstrap.script();
+        assertTrue(script.contains("Object.defineProperty(window,'" + ConsentBootstrap.GLOBAL_NAME + "'"));
+        JSONObject state = renderedState(script);
+        assertEquals("controller-1", state.getString("controllerId"));
+        assertEquals(40, state.getJSONArray("templateIds").length());
+        assertEquals(2, state.getJSONArray("bitmap").length());
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i % 3 == 0, isGranted(state, "tmpl-" + i));
+        }
+        assertFalse(isGranted(state, "unknown"));
+    }
+
+    @Test
+    public void rendersTCStringWhenPresent() throws Exception {
+        bootstrap.store(null, FakeUsercentricsBackend.generateConsents(2, 5));
+        assertTrue(bootstrap.script().contains("s.tcString=null;"));
+        assertEquals(JSONObject.NULL, renderedState(bootstrap.script()).get("controllerId"));
+
+        context.getSharedPreferences(context.getPackageName() + "_preferences", Context.MODE_PRIVATE)
+            .edit()
+            .putString("IABTCF_TCString", "CPXxRfAPXxRfAAfKABENB-CgAAAAAAAAAAYgAAAAAAAA")
+            .apply();
+        assertTrue(bootstrap.script().contains("s.tcString=\"CPXxRfAPXxRfAAfKABENB-CgAAAAAAAAAAYgAAAAAAAA\";"));
+    }
+
+    @Test
+    public void tcStringCannotCloseTheScript() {
+        String script = ConsentBootstrap.render("{\"templateIds\":[],\"bitmap\":[]}", "\"</script><script>alert(1)//");
+
+        assertFalse(script.contains("</script>"));
+        assertTrue(script.contains("s.tcString=\"\\\"<\\/script>"));
+    }
+}
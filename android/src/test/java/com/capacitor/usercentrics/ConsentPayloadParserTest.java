@@ -0,0 +1,73 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+import org.junit.Test;
+
+public class ConsentPayloadParserTest {
+
+    private static JSObject entry(Object templateId, Object status) {
+        JSObject entry = new JSObject();
+        entry.put("templateId", templateId);
+        entry.put("status", status);
+        entry.put("version", "1.0.0");
+        return entry;
+    }
+
+    @Test
+    public void parsesValidEntriesAndReportsInvalidOnes() throws Exception {
+        JSObject payload = new JSObject();
+        payload.put("a", entry("a", true));
+        payload.put("b", entry("b", "yes"));
+        payload.put("c", "not an object");
+        payload.put("d", entry(42, false));
+        JSObject keyed = new JSObject();
+        keyed.put("status", false);
+        payload.put("e", keyed);
+
+        ConsentPayloadParser.Result result = ConsentPayloadParser.parse(payload, true);
+
+        assertEquals(2, result.consents.size());
+        assertEquals(2, result.decisions.size());
+        assertEquals(3, result.getErrorCount());
+        for (int i = 0; i < result.consents.size(); i++) {
+            assertEquals(result.consents.get(i).getTemplateId(), result.decisions.get(i).getServiceId());
+        }
+
+        JSObject resolved = result.toJSObject();
+        assertEquals(2, resolved.getInt("accepted"));
+        JSONArray errors = resolved.getJSONArray("errors");
+        assertEquals(3, errors.length());
+    }
+
+    @Test
+    public void fallsBackToKeyForTemplateId() {
+        JSObject keyed = new JSObject();
+        keyed.put("status", true);
+        JSObject payload = new JSObject();
+        payload.put("tmpl-1", keyed);
+
+        ConsentPayloadParser.Result result = ConsentPayloadParser.parse(payload, false);
+
+        assertEquals("tmpl-1", result.consents.get(0).getTemplateId());
+        assertNull(result.consents.get(0).getVersion());
+        assertEquals(0, result.decisions.size());
+    }
+
+    @Test
+    public void flatPayloadDropsCallOptions() {
+        JSObject data = new JSObject();
+        data.put("a", entry("a", true));
+        data.put("force", true);
+        data.put("batchWindowMillis", 250);
+
+        ConsentPayloadParser.Result result = ConsentPayloadParser.parse(ConsentPayloadParser.withoutOptions(data), false);
+
+        assertEquals(1, result.consents.size());
+        assertEquals(0, result.getErrorCount());
+    }
+}
@@ -0,0 +1,57 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import java.util.List;
+import org.junit.Test;
+
+public class ConsentStoreTest {
+
+    @Test
+    public void statusesMatchConsentList() throws Exception {
+        List<UsercentricsServiceConsent> consents = FakeUsercentricsBackend.generateConsents(40, 7);
+        ConsentStore store = new ConsentStore();
+        store.ensureVersion(1, () -> consents);
+
+        JSArray templateIds = new JSArray();
+        for (UsercentricsServiceConsent consent : consents) {
+            assertEquals(consent.getStatus(), store.isConsentGiven(consent.getTemplateId()));
+            templateIds.put(consent.getTemplateId());
+        }
+        templateIds.put("unknown-template");
+
+        JSObject statuses = store.getStatuses(templateIds);
+        assertEquals(41, statuses.getInt("count"));
+        assertEquals(1, statuses.getInt("unknown"));
+        for (int i = 0; i < consents.size(); i++) {
+            boolean bit = ((statuses.getJSONArray("bitmap").getInt(i >>> 5) >>> (i & 31)) & 1) == 1;
+            assertEquals(consents.get(i).getStatus(), bit);
+        }
+        assertFalse(store.isKnown("unknown-template"));
+    }
+
+    @Test
+    public void rebuildsOnlyWhenVersionChanges() {
+        int[] reads = new int[1];
+        List<UsercentricsServiceConsent> consents = FakeUsercentricsBackend.generateConsents(3, 1);
+        ConsentStore store = new ConsentStore();
+        ConsentSerializer.ConsentSource source = () -> {
+            reads[0]++;
+            return consents;
+        };
+
+        store.ensureVersion(5, source);
+        store.ensureVersion(5, source);
+        assertEquals(1, reads[0]);
+
+        store.ensureVersion(6, source);
+        assertEquals(2, reads[0]);
+        assertTrue(store.isKnown(consents.get(0).getTemplateId()));
+    }
+}
@@ -0,0 +1,158 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.usercentrics.sdk.UserDecision;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConsentWriteAheadLogTest {
+
+    private File directory;
+    private File file;
+    private ScheduledExecutorService syncer;
+    private ConsentWriteAheadLog log;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("usercentrics-wal").toFile();
+        file = new File(directory, "consent.wal");
+        syncer = Executors.newSingleThreadScheduledExecutor();
+        log = new ConsentWriteAheadLog(file, syncer);
+    }
+
+    @After
+    public void tearDown() {
+        log.clear();
+        syncer.shutdownNow();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File f : files) f.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void acknowledgedEntriesAreNotPending() throws IOException {
+        long first = log.append(ConsentWriteAheadLog.DECISIONS, decisions("a", true, "b", false));
+        long second = log.append(ConsentWriteAheadLog.ACCEPT_ALL, Collections.emptyList());
+        log.acknowledge(first);
+
+        List<ConsentWriteAheadLog.Entry> pending = new ConsentWriteAheadLog(file, syncer).pending();
+        assertEquals(1, pending.size());
+        assertEquals(second, pending.get(0).seq);
+        assertEquals(ConsentWriteAheadLog.ACCEPT_ALL, pending.get(0).type);
+    }
+
+    @Test
+    public void sequenceContinuesAfterReopen() throws IOException {
+        long first = log.append(ConsentWriteAheadLog.DENY_ALL, Collections.emptyList());
+
+        ConsentWriteAheadLog reopened = new ConsentWriteAheadLog(file, syncer);
+        long second = reopened.append(ConsentWriteAheadLog.DECISIONS, decisions("a", true));
+        assertTrue(second > first);
+        assertEquals(2, reopened.pending().size());
+        reopened.clear();
+    }
+
+    @Test
+    public void ignoresTornTail() throws IOException {
+        log.append(ConsentWriteAheadLog.DECISIONS, decisions("a", true));
+        log.append(ConsentWriteAheadLog.DECISIONS, decisions("b", true));
+
+        // A kill in the middle of the second record
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        List<ConsentWriteAheadLog.Entry> pending = new ConsentWriteAheadLog(file, syncer).pending();
+        assertEquals(1, pending.size());
+        assertEquals("a", pending.get(0).decisions.get(0).getServiceId());
+    }
+
+    @Test
+    public void stopsAtCorruptRecord() throws IOException {
+        log.append(ConsentWriteAheadLog.DECISIONS, decisions("a", true));
+        long firstLength = file.length();
+        log.append(ConsentWriteAheadLog.DECISIONS, decisions("b", true));
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(firstLength + 12);
+            raf.write(0x7F);
+        }
+
+        assertEquals(1, new ConsentWriteAheadLog(file, syncer).pending().size());
+    }
+
+    @Test
+    public void compactKeepsOnlyPendingEntries() throws IOException {
+        long first = log.append(ConsentWriteAheadLog.DECISIONS, decisions("a", true));
+        long second = log.append(ConsentWriteAheadLog.DECISIONS, decisions("b", false));
+        log.acknowledge(first);
+        long before = file.length();
+
+        log.compact();
+        assertTrue(file.length() < before);
+        List<ConsentWriteAheadLog.Entry> pending = log.pending();
+        assertEquals(1, pending.size());
+        assertEquals(second, pending.get(0).seq);
+
+        log.acknowledge(second);
+        log.compact();
+        assertFalse(file.exists());
+        assertTrue(log.pending().isEmpty());
+    }
+
+    @Test
+    public void mergeAppliesDecisionsAfterLastBulkDecision() throws IOException {
+        log.append(ConsentWriteAheadLog.DECISIONS, decisions("a", false, "b", false));
+        log.append(ConsentWriteAheadLog.ACCEPT_ALL, Collections.emptyList());
+        log.append(ConsentWriteAheadLog.DECISIONS, decisions("c", false, "d", true));
+        log.append(ConsentWriteAheadLog.DECISIONS, decisions("c", true));
+
+        ConsentWriteAheadLog.Replay replay = ConsentWriteAheadLog.merge(log.pending());
+        assertEquals(Byte.valueOf(ConsentWriteAheadLog.ACCEPT_ALL), replay.bulk);
+        assertEquals(4, replay.seqs.size());
+        assertEquals(2, replay.decisions.size());
+        assertEquals(Boolean.TRUE, replay.decisions.get("c"));
+        assertEquals(Boolean.TRUE, replay.decisions.get("d"));
+        assertNull(replay.decisions.get("a"));
+    }
+
+    @Test
+    public void appendInsideSyncIntervalIsSyncedWhenItEnds() throws Exception {
+        log.append(ConsentWriteAheadLog.DECISIONS, decisions("a", true));
+        log.append(ConsentWriteAheadLog.DECISIONS, decisions("b", true));
+        // The second append came within the interval, no later write will sync it
+        assertTrue(log.hasUnsyncedAppends());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (log.hasUnsyncedAppends() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(log.hasUnsyncedAppends());
+    }
+
+    private static List<UserDecision> decisions(Object... pairs) {
+        UserDecision[] result = new UserDecision[pairs.length / 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new UserDecision((String) pairs[2 * i], (Boolean) pairs[2 * i + 1]);
+        }
+        return Arrays.asList(result);
+    }
+}
@@ -0,0 +1,206 @@
+package com.capacitor.usercentrics;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.SharedPreferences;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Application context for JVM tests: files live in a temp directory and shared
+ * preferences in memory.
+ */
+class FakeContext extends ContextWrapper {
+
+    private final File directory;
+    private final Map<String, FakePreferences> preferences = new HashMap<>();
+
+    FakeContext() throws IOException {
+        super(null);
+        directory = Files.createTempDirectory("usercentrics-test").toFile();
+    }
+
+    @Override
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    @Override
+    public String getPackageName() {
+        return "com.capacitor.usercentrics.test";
+    }
+
+    @Override
+    public File getNoBackupFilesDir() {
+        return directory;
+    }
+
+    @Override
+    public File getFilesDir() {
+        return directory;
+    }
+
+    @Override
+    public synchronized SharedPreferences getSharedPreferences(String name, int mode) {
+        FakePreferences prefs = preferences.get(name);
+        if (prefs == null) {
+            prefs = new FakePreferences();
+            preferences.put(name, prefs);
+        }
+        return prefs;
+    }
+
+    void delete() {
+        delete(directory);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) delete(child);
+        }
+        file.delete();
+    }
+
+    static class FakePreferences implements SharedPreferences {
+        private final Map<String, Object> values = new LinkedHashMap<>();
+
+        @Override
+        public synchronized Map<String, ?> getAll() {
+            return new LinkedHashMap<>(values);
+        }
+
+        @Override
+        public synchronized String getString(String key, String defValue) {
+            Object value = values.get(key);
+            return value != null ? (String) value : defValue;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized Set<String> getStringSet(String key, Set<String> defValues) {
+            Object value = values.get(key);
+            return value != null ? (Set<String>) value : defValues;
+        }
+
+        @Override
+        public synchronized int getInt(String key, int defValue) {
+            Object value = values.get(key);
+            return value != null ? (Integer) value : defValue;
+        }
+
+        @Override
+        public synchronized long getLong(String key, long defValue) {
+            Object value = values.get(key);
+            return value != null ? (Long) value : defValue;
+        }
+
+        @Override
+        public synchronized float getFloat(String key, float defValue) {
+            Object value = values.get(key);
+            return value != null ? (Float) value : defValue;
+        }
+
+        @Override
+        public synchronized boolean getBoolean(String key, boolean defValue) {
+            Object value = values.get(key);
+            return value != null ? (Boolean) value : defValue;
+        }
+
+        @Override
+        public synchronized boolean contains(String key) {
+            return values.containsKey(key);
+        }
+
+        @Override
+        public Editor edit() {
+            return new FakeEditor();
+        }
+
+        @Override
+        public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {}
+
+        @Override
+        public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {}
+
+        class FakeEditor implements Editor {
+            private final Map<String, Object> changes = new LinkedHashMap<>();
+            private boolean clear = false;
+
+            @Override
+            public Editor putString(String key, String value) {
+                changes.put(key, value);
+                return this;
+            }
+
+            @Override
+            public Editor putStringSet(String key, Set<String> values) {
+                changes.put(key, values);
+                return this;
+            }
+
+            @Override
+            public Editor putInt(String key, int value) {
+                changes.put(key, value);
+                return this;
+            }
+
+            @Override
+            public Editor putLong(String key, long value) {
+                changes.put(key, value);
+                return this;
+            }
+
+            @Override
+            public Editor putFloat(String key, float value) {
+                changes.put(key, value);
+                return this;
+            }
+
+            @Override
+            public Editor putBoolean(String key, boolean value) {
+                changes.put(key, value);
+                return this;
+            }
+
+            @Override
+            public Editor remove(String key) {
+                // A null change removes the key on commit
+                changes.put(key, null);
+                return this;
+            }
+
+            @Override
+            public Editor clear() {
+                clear = true;
+                return this;
+            }
+
+            @Override
+            public boolean commit() {
+                synchronized (FakePreferences.this) {
+                    if (clear) values.clear();
+                    for (Map.Entry<String, Object> change : changes.entrySet()) {
+                        if (change.getValue() == null) {
+                            values.remove(change.getKey());
+                        } else {
+                            values.put(change.getKey(), change.getValue());
+                        }
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public void apply() {
+                commit();
+            }
+        }
+    }
+}
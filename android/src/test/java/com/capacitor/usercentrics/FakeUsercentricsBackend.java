@@ -0,0 +1,157 @@
+package com.capacitor.usercentrics;
+
+import android.content.Context;
+import com.getcapacitor.JSObject;
+import com.usercentrics.sdk.UserDecision;
+import com.usercentrics.sdk.UsercentricsCMPData;
+import com.usercentrics.sdk.UsercentricsOptions;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+import com.usercentrics.sdk.models.settings.UsercentricsConsentType;
+import com.usercentrics.sdk.services.tcf.interfaces.TCFData;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic in-process stand-in for the Usercentrics SDK. Consents are generated
+ * from a seed so payload sizes are configurable and runs are reproducible.
+ */
+class FakeUsercentricsBackend implements UsercentricsBackend {
+
+    private final Map<String, UsercentricsServiceConsent> consents = new LinkedHashMap<>();
+    private TCFData tcfData;
+    private boolean available = false;
+    private int saveDecisionsCalls = 0;
+    private int initializeCalls = 0;
+
+    FakeUsercentricsBackend(int serviceCount, long seed) {
+        for (UsercentricsServiceConsent consent : generateConsents(serviceCount, seed)) {
+            consents.put(consent.getTemplateId(), consent);
+        }
+    }
+
+    static String templateId(int index) {
+        return String.format(Locale.ROOT, "tmpl-%05d", index);
+    }
+
+    static List<UsercentricsServiceConsent> generateConsents(int count, long seed) {
+        Random random = new Random(seed);
+        List<UsercentricsServiceConsent> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(consent(templateId(i), random.nextBoolean(), "Processor " + i, "1." + random.nextInt(10) + ".0"));
+        }
+        return result;
+    }
+
+    /**
+     * Builds the object passed to applyConsent/saveConsent from JS, keyed by templateId.
+     */
+    static JSObject generateConsentPayload(int count, long seed) {
+        JSObject payload = new JSObject();
+        for (UsercentricsServiceConsent consent : generateConsents(count, seed)) {
+            JSObject entry = new JSObject();
+            entry.put("templateId", consent.getTemplateId());
+            entry.put("status", consent.getStatus());
+            entry.put("dataProcessor", consent.getDataProcessor());
+            entry.put("version", consent.getVersion());
+            payload.put(consent.getTemplateId(), entry);
+        }
+        return payload;
+    }
+
+    private static UsercentricsServiceConsent consent(String templateId, boolean status, String dataProcessor, String version) {
+        return new UsercentricsServiceConsent(templateId, status, new ArrayList<>(), null, dataProcessor, version, false);
+    }
+
+    void setTCFData(TCFData tcfData) {
+        this.tcfData = tcfData;
+    }
+
+    int getInitializeCalls() {
+        return initializeCalls;
+    }
+
+    int getSaveDecisionsCalls() {
+        return saveDecisionsCalls;
+    }
+
+    @Override
+    public void initialize(Context context, UsercentricsOptions options) {
+        initializeCalls++;
+    }
+
+    @Override
+    public void isReady(ReadyListener listener) {
+        available = true;
+        listener.onReady(true, getConsents());
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Override
+    public void reset() {
+        available = false;
+        consents.clear();
+    }
+
+    @Override
+    public String getControllerId() {
+        return "fake-controller-id";
+    }
+
+    @Override
+    public List<UsercentricsServiceConsent> getConsents() {
+        return new ArrayList<>(consents.values());
+    }
+
+    @Override
+    public UsercentricsCMPData getCMPData() {
+        return null;
+    }
+
+    @Override
+    public void restoreUserSession(String controllerId, ReadyListener listener) {
+        listener.onReady(false, getConsents());
+    }
+
+    @Override
+    public void getTCFData(TCFDataListener listener) {
+        listener.onTCFData(tcfData);
+    }
+
+    @Override
+    public List<UsercentricsServiceConsent> acceptAll(UsercentricsConsentType consentType) {
+        return setAll(true);
+    }
+
+    @Override
+    public List<UsercentricsServiceConsent> denyAll(UsercentricsConsentType consentType) {
+        return setAll(false);
+    }
+
+    @Override
+    public List<UsercentricsServiceConsent> saveDecisions(List<UserDecision> decisions, UsercentricsConsentType consentType) {
+        saveDecisionsCalls++;
+        for (UserDecision decision : decisions) {
+            UsercentricsServiceConsent previous = consents.get(decision.getServiceId());
+            if (previous != null) {
+                consents.put(previous.getTemplateId(), consent(previous.getTemplateId(), decision.getConsent(), previous.getDataProcessor(), previous.getVersion()));
+            }
+        }
+        return getConsents();
+    }
+
+    private List<UsercentricsServiceConsent> setAll(boolean status) {
+        for (UsercentricsServiceConsent previous : new ArrayList<>(consents.values())) {
+            consents.put(previous.getTemplateId(), consent(previous.getTemplateId(), status, previous.getDataProcessor(), previous.getVersion()));
+        }
+        return getConsents();
+    }
+}
@@ -0,0 +1,93 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Minimal JMH-style harness for JVM unit tests: warmup, several measured rounds, median
+ * ns/op, compared against the budgets in benchmarks/baseline.properties.
+ *
+ * Budgets are only enforced with -PbenchmarkStrict=true, shared CI machines are too noisy.
+ */
+final class MicroBenchmark {
+
+    interface Operation {
+        Object run() throws Exception;
+    }
+
+    private static final int ROUNDS = 5;
+    private static final Properties BASELINES = loadBaselines();
+
+    // Keeps results reachable so the JIT can't eliminate the measured work
+    static volatile Object sink;
+
+    private MicroBenchmark() {}
+
+    static double measure(String name, int warmupIterations, int iterations, Operation operation) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            sink = operation.run();
+        }
+
+        double[] rounds = new double[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink = operation.run();
+            }
+            rounds[round] = (System.nanoTime() - start) / (double) iterations;
+        }
+        Arrays.sort(rounds);
+        double nsPerOp = rounds[ROUNDS / 2];
+
+        String baseline = BASELINES.getProperty(name);
+        System.out.println(String.format(Locale.ROOT, "benchmark %s: %.0f ns/op (baseline %s)", name, nsPerOp, baseline));
+        if (baseline != null && Boolean.getBoolean("usercentrics.benchmark.strict")) {
+            assertTrue(name + " regressed: " + nsPerOp + " ns/op > " + baseline, nsPerOp <= Double.parseDouble(baseline));
+        }
+        return nsPerOp;
+    }
+
+    /**
+     * Bytes of heap each result of the operation retains, measured by keeping copies results
+     * reachable and comparing the used heap after GC.
+     */
+    static long retainedBytes(String name, int copies, Operation operation) throws Exception {
+        long before = usedHeap();
+        Object[] retained = new Object[copies];
+        for (int i = 0; i < copies; i++) {
+            retained[i] = operation.run();
+        }
+        sink = retained;
+        long bytesPerOp = (usedHeap() - before) / copies;
+        sink = null;
+
+        System.out.println(String.format(Locale.ROOT, "benchmark %s: %d bytes/op retained", name, bytesPerOp));
+        return bytesPerOp;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static Properties loadBaselines() {
+        Properties properties = new Properties();
+        try (InputStream in = MicroBenchmark.class.getResourceAsStream("/benchmarks/baseline.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read benchmark baselines", e);
+        }
+        return properties;
+    }
+}
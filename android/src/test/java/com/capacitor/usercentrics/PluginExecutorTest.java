@@ -0,0 +1,168 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+public class PluginExecutorTest {
+
+    private final PluginExecutor executor = new PluginExecutor(new PluginMetrics());
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    private CountDownLatch blockSerial() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(PluginExecutor.Lane.GATING, PluginExecutor.Ordering.MUTATION, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    @Test
+    public void readsBehindMutationRunInSubmissionOrder() throws Exception {
+        CountDownLatch release = blockSerial();
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        executor.execute(PluginExecutor.Lane.BULK, PluginExecutor.Ordering.READ, () -> { order.add("bulk"); done.countDown(); });
+        executor.execute(PluginExecutor.Lane.GATING, PluginExecutor.Ordering.READ, () -> { order.add("gating"); done.countDown(); });
+        executor.execute(PluginExecutor.Lane.UI, PluginExecutor.Ordering.READ, () -> { order.add("ui"); done.countDown(); });
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("bulk", order.get(0));
+        assertEquals("gating", order.get(1));
+        assertEquals("ui", order.get(2));
+    }
+
+    @Test
+    public void queuedMutationRunsBeforeLaterUiCall() throws Exception {
+        CountDownLatch release = blockSerial();
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        // Queued but not running yet, the serial thread is still busy
+        executor.execute(PluginExecutor.Lane.GATING, PluginExecutor.Ordering.MUTATION, () -> { order.add("mutation"); done.countDown(); });
+        executor.execute(PluginExecutor.Lane.UI, PluginExecutor.Ordering.READ, () -> { order.add("ui"); done.countDown(); });
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("mutation", order.get(0));
+        assertEquals("ui", order.get(1));
+    }
+
+    @Test
+    public void readBehindAsyncMutationWaitsForItsCallback() throws Exception {
+        Runnable[] callback = { null };
+        CountDownLatch mutationRan = new CountDownLatch(1);
+        // Returns right away, the mutation completes when its callback fires
+        executor.execute(PluginExecutor.Lane.GATING, PluginExecutor.Ordering.MUTATION, done -> {
+            callback[0] = done;
+            mutationRan.countDown();
+        });
+        assertTrue(mutationRan.await(5, TimeUnit.SECONDS));
+
+        CountDownLatch read = new CountDownLatch(1);
+        executor.execute(PluginExecutor.Lane.GATING, PluginExecutor.Ordering.READ, read::countDown);
+        assertFalse(read.await(200, TimeUnit.MILLISECONDS));
+
+        callback[0].run();
+        assertTrue(read.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void consistentReadDoesNotHoldBackLaterReads() throws Exception {
+        Runnable[] callback = { null };
+        CountDownLatch batchRan = new CountDownLatch(1);
+        executor.execute(PluginExecutor.Lane.GATING, PluginExecutor.Ordering.CONSISTENT_READ, done -> {
+            callback[0] = done;
+            batchRan.countDown();
+        });
+        assertTrue(batchRan.await(5, TimeUnit.SECONDS));
+
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch mutation = new CountDownLatch(1);
+        executor.execute(PluginExecutor.Lane.GATING, PluginExecutor.Ordering.READ, read::countDown);
+        executor.execute(PluginExecutor.Lane.GATING, PluginExecutor.Ordering.MUTATION, mutation::countDown);
+
+        // The read goes to the pool, the mutation waits until the batch completed
+        assertTrue(read.await(5, TimeUnit.SECONDS));
+        assertFalse(mutation.await(200, TimeUnit.MILLISECONDS));
+        callback[0].run();
+        assertTrue(mutation.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void callbackThatNeverFiresReleasesAfterTimeout() throws Exception {
+        executor.setSerialHoldTimeoutMillis(50);
+        executor.execute(PluginExecutor.Lane.GATING, PluginExecutor.Ordering.MUTATION, done -> {});
+
+        CountDownLatch read = new CountDownLatch(1);
+        executor.execute(PluginExecutor.Lane.GATING, PluginExecutor.Ordering.READ, read::countDown);
+        assertTrue(read.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void readPoolRunsByLane() throws Exception {
+        int threads = executor.getStats().getInt("readThreads");
+        CountDownLatch started = new CountDownLatch(threads);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch releaseRest = new CountDownLatch(1);
+        for (int i = 0; i < threads; i++) {
+            CountDownLatch release = i == 0 ? releaseFirst : releaseRest;
+            executor.execute(PluginExecutor.Lane.GATING, PluginExecutor.Ordering.READ, () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        executor.execute(PluginExecutor.Lane.BULK, PluginExecutor.Ordering.READ, () -> { order.add("bulk"); done.countDown(); });
+        executor.execute(PluginExecutor.Lane.GATING, PluginExecutor.Ordering.READ, () -> { order.add("gating"); done.countDown(); });
+        executor.execute(PluginExecutor.Lane.UI, PluginExecutor.Ordering.READ, () -> { order.add("ui"); done.countDown(); });
+
+        // A single free reader drains the queue one task at a time
+        releaseFirst.countDown();
+        try {
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            releaseRest.countDown();
+        }
+        assertEquals("ui", order.get(0));
+        assertEquals("gating", order.get(1));
+        assertEquals("bulk", order.get(2));
+    }
+
+    @Test(expected = PluginExecutor.SaturatedException.class)
+    public void rejectsPastLaneCapacity() throws Exception {
+        CountDownLatch release = blockSerial();
+        try {
+            for (int i = 0; i <= PluginExecutor.Lane.BULK.capacity; i++) {
+                executor.execute(PluginExecutor.Lane.BULK, PluginExecutor.Ordering.READ, () -> {});
+            }
+        } finally {
+            release.countDown();
+        }
+    }
+}
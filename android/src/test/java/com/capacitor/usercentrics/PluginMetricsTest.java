@@ -0,0 +1,129 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSObject;
+
+import org.junit.Test;
+
+public class PluginMetricsTest {
+
+    private static final int BUCKETS = PluginMetrics.LatencyHistogram.BUCKETS;
+
+    private static PluginMetrics.LatencyHistogram histogram(long... micros) {
+        PluginMetrics.LatencyHistogram histogram = new PluginMetrics.LatencyHistogram();
+        for (long value : micros) {
+            histogram.record(value * 1000, false);
+        }
+        return histogram;
+    }
+
+    @Test
+    public void bucketBoundsAreContiguous() {
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            long upper = PluginMetrics.LatencyHistogram.bucketUpperBoundMicros(i);
+            assertEquals("upper bound of " + i, i, PluginMetrics.LatencyHistogram.bucketIndex(upper));
+            assertEquals("value after bucket " + i, i + 1, PluginMetrics.LatencyHistogram.bucketIndex(upper + 1));
+        }
+    }
+
+    @Test
+    public void bucketIndexAtEdges() {
+        // Linear below 4us, then 4 sub-buckets per power of two
+        assertEquals(0, PluginMetrics.LatencyHistogram.bucketIndex(-5));
+        assertEquals(0, PluginMetrics.LatencyHistogram.bucketIndex(0));
+        assertEquals(3, PluginMetrics.LatencyHistogram.bucketIndex(3));
+        assertEquals(4, PluginMetrics.LatencyHistogram.bucketIndex(4));
+        assertEquals(7, PluginMetrics.LatencyHistogram.bucketIndex(7));
+        assertEquals(8, PluginMetrics.LatencyHistogram.bucketIndex(8));
+        assertEquals(8, PluginMetrics.LatencyHistogram.bucketIndex(9));
+        assertEquals(12, PluginMetrics.LatencyHistogram.bucketIndex(16));
+        assertEquals(BUCKETS - 1, PluginMetrics.LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void bucketsStayWithinQuarterOfValue() {
+        for (long micros = 4; micros < 10_000_000; micros = micros * 3 / 2 + 1) {
+            long upper = PluginMetrics.LatencyHistogram.bucketUpperBoundMicros(PluginMetrics.LatencyHistogram.bucketIndex(micros));
+            assertTrue(micros + " in bucket up to " + upper, upper >= micros && upper < micros * 1.25 + 1);
+        }
+    }
+
+    @Test
+    public void emptyHistogramReportsZero() throws Exception {
+        PluginMetrics.LatencyHistogram histogram = histogram();
+
+        assertEquals(0, histogram.percentileMicros(0.50));
+        assertEquals(0, histogram.percentileMicros(0.99));
+        JSObject result = histogram.toJSObject();
+        assertEquals(0, result.getInteger("count").intValue());
+        assertEquals(0.0, result.getDouble("p99Ms"), 0);
+        assertEquals(0.0, result.getDouble("maxMs"), 0);
+    }
+
+    @Test
+    public void singleSampleIsEveryPercentile() throws Exception {
+        JSObject result = histogram(1000).toJSObject();
+
+        // The bucket reaches 1023us, the percentiles are clamped to the recorded max
+        assertEquals(1, result.getInteger("count").intValue());
+        assertEquals(1.0, result.getDouble("p50Ms"), 0);
+        assertEquals(1.0, result.getDouble("p95Ms"), 0);
+        assertEquals(1.0, result.getDouble("p99Ms"), 0);
+        assertEquals(1.0, result.getDouble("maxMs"), 0);
+    }
+
+    @Test
+    public void uniformDistributionPercentiles() throws Exception {
+        long[] micros = new long[100];
+        for (int i = 0; i < micros.length; i++) {
+            micros[i] = i + 1;
+        }
+        PluginMetrics.LatencyHistogram histogram = histogram(micros);
+
+        // Upper bounds of the buckets holding the 50th, 95th and 99th sample
+        assertEquals(55, histogram.percentileMicros(0.50));
+        assertEquals(95, histogram.percentileMicros(0.95));
+        assertEquals(111, histogram.percentileMicros(0.99));
+        JSObject result = histogram.toJSObject();
+        assertEquals(0.100, result.getDouble("p99Ms"), 1e-9);
+        assertEquals(0.100, result.getDouble("maxMs"), 1e-9);
+    }
+
+    @Test
+    public void skewedDistributionPercentiles() {
+        // 98 fast calls and two slow outliers
+        long[] micros = new long[100];
+        for (int i = 0; i < 98; i++) {
+            micros[i] = 200;
+        }
+        micros[98] = 50_000;
+        micros[99] = 80_000;
+        PluginMetrics.LatencyHistogram histogram = histogram(micros);
+
+        assertEquals(223, histogram.percentileMicros(0.50));
+        assertEquals(223, histogram.percentileMicros(0.95));
+        long p99 = histogram.percentileMicros(0.99);
+        assertTrue("p99 " + p99, p99 >= 50_000 && p99 < 50_000 * 1.25);
+    }
+
+    @Test
+    public void countsErrorsAndIgnoresDisabledSpans() throws Exception {
+        PluginMetrics metrics = new PluginMetrics();
+        metrics.record("getConsents", metrics.start(), false);
+        metrics.record("getConsents", metrics.start(), true);
+        metrics.setEnabled(false);
+        long disabled = metrics.start();
+        metrics.record("getConsents", disabled, false);
+
+        assertEquals(0, disabled);
+        JSObject operation = metrics.snapshot().getJSObject("operations").getJSObject("getConsents");
+        assertEquals(2, operation.getInteger("count").intValue());
+        assertEquals(1, operation.getInteger("errors").intValue());
+
+        metrics.reset();
+        assertFalse(metrics.snapshot().getJSObject("operations").keys().hasNext());
+    }
+}
@@ -0,0 +1,125 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.getcapacitor.JSObject;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * isReady callers share one SDK request while it is in flight and its result while the
+ * consent state is unchanged.
+ */
+public class ReadyRequestTest {
+
+    /**
+     * Answers isReady only when the test says so, like the SDK waiting for its settings.
+     */
+    static class DeferredReadyBackend extends FakeUsercentricsBackend {
+        final List<ReadyListener> listeners = new CopyOnWriteArrayList<>();
+
+        DeferredReadyBackend() {
+            super(20, 3);
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public void isReady(ReadyListener listener) {
+            listeners.add(listener);
+        }
+    }
+
+    static class Status implements CapacitorUsercentrics.ReadyCallback {
+        volatile JSObject status;
+        volatile String error;
+
+        @Override
+        public void onSuccess(JSObject status) {
+            this.status = status;
+        }
+
+        @Override
+        public void onError(String error) {
+            this.error = error;
+        }
+    }
+
+    private DeferredReadyBackend backend;
+    private CapacitorUsercentrics implementation;
+
+    @Before
+    public void setUp() {
+        backend = new DeferredReadyBackend();
+        implementation = new CapacitorUsercentrics(backend);
+    }
+
+    @After
+    public void tearDown() {
+        implementation.shutdown();
+    }
+
+    private Status isReady() {
+        Status status = new Status();
+        implementation.isReady(status);
+        return status;
+    }
+
+    @Test
+    public void concurrentCallersShareOneRequest() {
+        Status[] statuses = new Status[5];
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = isReady();
+        }
+        assertEquals(1, backend.listeners.size());
+
+        backend.listeners.get(0).onReady(true, backend.getConsents());
+        for (Status status : statuses) {
+            assertSame(statuses[0].status, status.status);
+        }
+        assertEquals(true, statuses[0].status.getBoolean("shouldCollectConsent", null));
+    }
+
+    @Test
+    public void resultIsReusedUntilConsentsChange() {
+        isReady();
+        backend.listeners.get(0).onReady(false, backend.getConsents());
+
+        Status cached = isReady();
+        assertEquals(1, backend.listeners.size());
+        assertEquals(false, cached.status.getBoolean("shouldCollectConsent", null));
+
+        implementation.acceptAll(false, new CapacitorUsercentrics.Callback() {
+            @Override
+            public void onSuccess() {}
+
+            @Override
+            public void onError(String error) {}
+        });
+        isReady();
+        assertEquals(2, backend.listeners.size());
+    }
+
+    @Test
+    public void failureReachesEveryWaiterAndNextCallRetries() {
+        Status first = isReady();
+        Status second = isReady();
+        backend.listeners.get(0).onError("timeout");
+
+        assertEquals("timeout", first.error);
+        assertEquals("timeout", second.error);
+        assertNull(first.status);
+
+        isReady();
+        assertEquals(2, backend.listeners.size());
+    }
+}
@@ -0,0 +1,212 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SaveConsentBatcherTest {
+
+    static class Result implements CapacitorUsercentrics.Callback {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile String error;
+
+        @Override
+        public void onSuccess() {
+            done.countDown();
+        }
+
+        @Override
+        public void onError(String error) {
+            this.error = error;
+            done.countDown();
+        }
+
+        Result await() throws InterruptedException {
+            assertTrue("callback not invoked", done.await(5, TimeUnit.SECONDS));
+            return this;
+        }
+    }
+
+    private final List<List<UsercentricsServiceConsent>> flushed = new CopyOnWriteArrayList<>();
+    private final List<Boolean> forced = new CopyOnWriteArrayList<>();
+    // Stands in for the plugin's serial lane, the test decides when queued flushes run
+    private final BlockingQueue<Runnable> serialLane = new LinkedBlockingQueue<>();
+    private SaveConsentBatcher batcher;
+
+    @Before
+    public void setUp() {
+        batcher = new SaveConsentBatcher((consents, force) -> {
+            flushed.add(consents);
+            forced.add(force);
+        });
+        batcher.setFlushExecutor(serialLane::add);
+    }
+
+    @After
+    public void tearDown() {
+        batcher.shutdown();
+    }
+
+    @Test
+    public void flushRunsOnFlushExecutor() throws Exception {
+        Result result = new Result();
+        batcher.enqueue(FakeUsercentricsBackend.generateConsents(3, 1), false, 10, result);
+
+        Runnable flush = serialLane.poll(5, TimeUnit.SECONDS);
+        assertNotNull(flush);
+        assertEquals(0, flushed.size());
+
+        flush.run();
+        assertNull(result.await().error);
+        assertEquals(1, flushed.size());
+    }
+
+    @Test
+    public void clearDropsBatchQueuedForFlush() throws Exception {
+        Result result = new Result();
+        batcher.enqueue(FakeUsercentricsBackend.generateConsents(3, 1), false, 10, result);
+        Runnable flush = serialLane.poll(5, TimeUnit.SECONDS);
+        assertNotNull(flush);
+
+        // A reset ahead of the flush on the serial lane
+        batcher.clear("reset");
+        flush.run();
+
+        assertEquals("reset", result.await().error);
+        assertEquals(0, flushed.size());
+    }
+
+    @Test
+    public void staleFlushLeavesBatchOpenedAfterClear() throws Exception {
+        Result first = new Result();
+        batcher.enqueue(FakeUsercentricsBackend.generateConsents(3, 1), false, 10, first);
+        Runnable staleFlush = serialLane.poll(5, TimeUnit.SECONDS);
+        assertNotNull(staleFlush);
+
+        // A reset and a new save both ahead of the first batch's flush
+        batcher.clear("reset");
+        Result second = new Result();
+        batcher.enqueue(FakeUsercentricsBackend.generateConsents(2, 2), false, 60_000, second);
+        staleFlush.run();
+
+        assertEquals("reset", first.await().error);
+        assertEquals(0, flushed.size());
+        // Still waiting for its own window
+        assertEquals(1, second.done.getCount());
+    }
+
+    @Test
+    public void repeatedFlushLeavesNextBatch() throws Exception {
+        Result first = new Result();
+        batcher.enqueue(FakeUsercentricsBackend.generateConsents(3, 1), false, 10, first);
+        Runnable staleFlush = serialLane.poll(5, TimeUnit.SECONDS);
+        assertNotNull(staleFlush);
+        staleFlush.run();
+        assertNull(first.await().error);
+
+        Result second = new Result();
+        batcher.enqueue(FakeUsercentricsBackend.generateConsents(2, 2), false, 10, second);
+        Runnable flush = serialLane.poll(5, TimeUnit.SECONDS);
+        assertNotNull(flush);
+        // A second run of the first flush, e.g. dispatched twice, finds nothing of its own
+        staleFlush.run();
+        assertEquals(1, flushed.size());
+        assertEquals(1, second.done.getCount());
+
+        flush.run();
+        assertNull(second.await().error);
+        assertEquals(2, flushed.size());
+    }
+
+    @Test
+    public void rejectedFlushFailsCallbacks() throws Exception {
+        batcher.setFlushExecutor(work -> {
+            throw new PluginExecutor.SaturatedException("Usercentrics gating queue is full");
+        });
+        Result result = new Result();
+        batcher.enqueue(FakeUsercentricsBackend.generateConsents(3, 1), false, 10, result);
+
+        assertEquals("Usercentrics gating queue is full", result.await().error);
+        assertEquals(0, flushed.size());
+    }
+
+    private static UsercentricsServiceConsent consent(String templateId, boolean status) {
+        return CompactConsent.serviceConsent(templateId, status, null, "1.0.0", false);
+    }
+
+    @Test
+    public void mergesSavesWithinWindow() throws Exception {
+        batcher.setFlushExecutor(Runnable::run);
+        Result first = new Result();
+        Result second = new Result();
+        batcher.enqueue(Arrays.asList(consent("a", true), consent("b", true)), false, 100, first);
+        batcher.enqueue(Arrays.asList(consent("c", false)), true, 100, second);
+
+        assertNull(first.await().error);
+        assertNull(second.await().error);
+        assertEquals(1, flushed.size());
+        assertEquals(3, flushed.get(0).size());
+        // One forced save forces the whole batch
+        assertEquals(Boolean.TRUE, forced.get(0));
+    }
+
+    @Test
+    public void lastWriteWinsPerTemplateId() throws Exception {
+        batcher.setFlushExecutor(Runnable::run);
+        Result result = new Result();
+        batcher.enqueue(Arrays.asList(consent("a", true), consent("b", true)), false, 100, new Result());
+        batcher.enqueue(Arrays.asList(consent("a", false)), false, 100, result);
+        result.await();
+
+        List<UsercentricsServiceConsent> batch = flushed.get(0);
+        assertEquals(2, batch.size());
+        // Re-inserted, the batch keeps the order of the latest writes
+        assertEquals("b", batch.get(0).getTemplateId());
+        assertEquals("a", batch.get(1).getTemplateId());
+        assertEquals(false, batch.get(1).getStatus());
+    }
+
+    @Test
+    public void saveAfterWindowStartsNewBatch() throws Exception {
+        batcher.setFlushExecutor(Runnable::run);
+        Result first = new Result();
+        batcher.enqueue(Arrays.asList(consent("a", true)), false, 10, first);
+        first.await();
+        Result second = new Result();
+        batcher.enqueue(Arrays.asList(consent("a", false)), false, 10, second);
+        second.await();
+
+        assertEquals(2, flushed.size());
+        assertEquals(Boolean.FALSE, forced.get(1));
+        assertEquals(false, flushed.get(1).get(0).getStatus());
+    }
+
+    @Test
+    public void failedSaveFailsEveryCallback() throws Exception {
+        SaveConsentBatcher failing = new SaveConsentBatcher((consents, force) -> {
+            throw new IllegalStateException("disk full");
+        });
+        Result first = new Result();
+        Result second = new Result();
+        failing.enqueue(Arrays.asList(consent("a", true)), false, 10, first);
+        failing.enqueue(Arrays.asList(consent("b", true)), false, 10, second);
+
+        assertEquals("disk full", first.await().error);
+        assertEquals("disk full", second.await().error);
+        failing.shutdown();
+    }
+}
@@ -0,0 +1,157 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSObject;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class SdkInitSchedulerTest {
+
+    private static UsercentricsServiceConsent consent(String templateId, boolean status) {
+        return new UsercentricsServiceConsent(templateId, status, new ArrayList<>(), null, null, "1.0.0", false);
+    }
+
+    @Test
+    public void initializesGrantedServicesByPriorityOnly() throws Exception {
+        SdkInitScheduler scheduler = new SdkInitScheduler(Runnable::run);
+        scheduler.setStaggerMillis(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        scheduler.register("low", 1, false, () -> { order.add("low"); done.countDown(); });
+        scheduler.register("high", 10, true, () -> { order.add("high"); done.countDown(); });
+        scheduler.register("denied", 100, false, () -> order.add("denied"));
+
+        scheduler.onConsents(Arrays.asList(consent("low", true), consent("high", true), consent("denied", false)));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        Thread.sleep(20);
+        assertEquals(Arrays.asList("high", "low"), order);
+    }
+
+    @Test
+    public void runsEachInitializerOnce() throws Exception {
+        SdkInitScheduler scheduler = new SdkInitScheduler(Runnable::run);
+        scheduler.setStaggerMillis(1);
+        CountDownLatch done = new CountDownLatch(1);
+        int[] runs = new int[1];
+        scheduler.register("sdk", 0, false, () -> { runs[0]++; done.countDown(); });
+
+        List<UsercentricsServiceConsent> granted = Arrays.asList(consent("sdk", true));
+        scheduler.onConsents(granted);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        scheduler.onConsents(granted);
+        Thread.sleep(20);
+
+        assertEquals(1, runs[0]);
+    }
+
+    @Test
+    public void initializesWhenRegisteredAfterGrant() throws Exception {
+        SdkInitScheduler scheduler = new SdkInitScheduler(Runnable::run);
+        scheduler.setStaggerMillis(1);
+        scheduler.onConsents(Arrays.asList(consent("late", true), consent("denied", false)));
+
+        CountDownLatch done = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+        scheduler.register("denied", 10, false, () -> order.add("denied"));
+        scheduler.register("late", 0, false, () -> { order.add("late"); done.countDown(); });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        Thread.sleep(20);
+        assertEquals(Arrays.asList("late"), order);
+        assertEquals("waiting", scheduler.getStatus().getString("denied"));
+    }
+
+    @Test
+    public void waitsForNewGrantAfterClear() throws Exception {
+        SdkInitScheduler scheduler = new SdkInitScheduler(Runnable::run);
+        scheduler.setStaggerMillis(1);
+        scheduler.onConsents(Arrays.asList(consent("sdk", true)));
+        scheduler.clearConsents();
+
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.register("sdk", 0, false, done::countDown);
+        Thread.sleep(20);
+        assertEquals("waiting", scheduler.getStatus().getString("sdk"));
+
+        scheduler.onConsents(Arrays.asList(consent("sdk", true)));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void mainThreadInitializerAfterShutdownDoesNothing() throws Exception {
+        BlockingQueue<Runnable> mainLooper = new LinkedBlockingQueue<>();
+        SdkInitScheduler scheduler = new SdkInitScheduler(mainLooper::add);
+        int[] runs = new int[1];
+        scheduler.register("sdk", 0, true, () -> runs[0]++);
+        scheduler.onConsents(Arrays.asList(consent("sdk", true)));
+        Runnable posted = mainLooper.poll(5, TimeUnit.SECONDS);
+
+        // The plugin is destroyed before the main looper gets to the initializer
+        scheduler.shutdown();
+        posted.run();
+        scheduler.register("late", 0, false, () -> runs[0]++);
+        scheduler.onConsents(Arrays.asList(consent("late", true)));
+
+        assertEquals(0, runs[0]);
+    }
+
+    @Test
+    public void onlyConsentsConfirmedBySdkStartInitializers() throws Exception {
+        FakeUsercentricsBackend backend = new FakeUsercentricsBackend(1, 1);
+        CapacitorUsercentrics implementation = new CapacitorUsercentrics(backend);
+        CapacitorUsercentrics.Callback ignore = new CapacitorUsercentrics.Callback() {
+            @Override
+            public void onSuccess() {}
+
+            @Override
+            public void onError(String error) {
+                throw new AssertionError(error);
+            }
+        };
+        implementation.isReady(new CapacitorUsercentrics.ReadyCallback() {
+            @Override
+            public void onSuccess(JSObject status) {}
+
+            @Override
+            public void onError(String error) {}
+        });
+        implementation.denyAll(false, ignore);
+        String templateId = FakeUsercentricsBackend.templateId(0);
+        CountDownLatch initialized = new CountDownLatch(1);
+        implementation.getSdkInitScheduler().register(templateId, 0, false, initialized::countDown);
+
+        // applyConsent only reaches the appliers, the SDK still holds the denial
+        JSObject entry = new JSObject();
+        entry.put("templateId", templateId);
+        entry.put("status", true);
+        JSObject payload = new JSObject();
+        payload.put(templateId, entry);
+        implementation.applyConsent(payload, false, new CapacitorUsercentrics.ConsentsCallback() {
+            @Override
+            public void onSuccess(JSObject result) {}
+
+            @Override
+            public void onError(String error) {
+                throw new AssertionError(error);
+            }
+        });
+        assertFalse(initialized.await(100, TimeUnit.MILLISECONDS));
+
+        implementation.acceptAll(false, ignore);
+        assertTrue(initialized.await(5, TimeUnit.SECONDS));
+        implementation.shutdown();
+    }
+}
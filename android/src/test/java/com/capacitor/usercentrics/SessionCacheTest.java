@@ -0,0 +1,243 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSObject;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SessionCacheTest {
+
+    private File directory;
+    private SessionCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("usercentrics-sessions").toFile();
+        cache = new SessionCache(directory, 2, Runnable::run);
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void roundTripsConsents() {
+        List<UsercentricsServiceConsent> consents = FakeUsercentricsBackend.generateConsents(50, 7);
+        cache.put("controller-a", consents);
+
+        List<UsercentricsServiceConsent> restored = cache.get("controller-a");
+        assertNotNull(restored);
+        assertEquals(consents.size(), restored.size());
+        for (int i = 0; i < consents.size(); i++) {
+            assertEquals(consents.get(i).getTemplateId(), restored.get(i).getTemplateId());
+            assertEquals(consents.get(i).getStatus(), restored.get(i).getStatus());
+            assertEquals(consents.get(i).getVersion(), restored.get(i).getVersion());
+            assertEquals(consents.get(i).getDataProcessor(), restored.get(i).getDataProcessor());
+        }
+        assertNull(cache.get("controller-b"));
+    }
+
+    @Test
+    public void evictsOldestEntries() {
+        List<UsercentricsServiceConsent> consents = FakeUsercentricsBackend.generateConsents(3, 7);
+        cache.put("controller-a", consents);
+        new File(directory, directory.list()[0]).setLastModified(System.currentTimeMillis() - 60_000);
+        cache.put("controller-b", consents);
+        cache.put("controller-c", consents);
+
+        assertNull(cache.get("controller-a"));
+        assertNotNull(cache.get("controller-b"));
+        assertNotNull(cache.get("controller-c"));
+    }
+
+    @Test
+    public void dropsCorruptEntries() throws IOException {
+        cache.put("controller-a", FakeUsercentricsBackend.generateConsents(3, 7));
+        File entry = directory.listFiles()[0];
+        try (FileOutputStream out = new FileOutputStream(entry)) {
+            out.write(new byte[] { 1, 2, 3 });
+        }
+
+        assertNull(cache.get("controller-a"));
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    /**
+     * Restores sessions only when the test says so, like the SDK's remote restore.
+     */
+    static class SlowRestoreBackend extends FakeUsercentricsBackend {
+        UsercentricsBackend.ReadyListener restore;
+        int tcfReads = 0;
+
+        SlowRestoreBackend() {
+            super(20, 3);
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public void restoreUserSession(String controllerId, ReadyListener listener) {
+            restore = listener;
+        }
+
+        @Override
+        public void getTCFData(TCFDataListener listener) {
+            tcfReads++;
+        }
+    }
+
+    @Test
+    public void cachedRestorePrimesDerivedState() throws IOException {
+        SlowRestoreBackend backend = new SlowRestoreBackend();
+        FakeContext context = new FakeContext();
+        CapacitorUsercentrics implementation = new CapacitorUsercentrics(backend);
+        implementation.setContext(context);
+        implementation.setSessionCache(cache);
+
+        // The other user decided the opposite of what the SDK currently holds
+        List<UsercentricsServiceConsent> other = new ArrayList<>();
+        for (UsercentricsServiceConsent consent : backend.getConsents()) {
+            other.add(CompactConsent.serviceConsent(consent.getTemplateId(), !consent.getStatus(), consent.getDataProcessor(), consent.getVersion(), false));
+        }
+        cache.put("other-user", other);
+
+        String[] error = { "not called" };
+        implementation.restoreUserSession("other-user", new CapacitorUsercentrics.Callback() {
+            @Override
+            public void onSuccess() {
+                error[0] = null;
+            }
+
+            @Override
+            public void onError(String message) {
+                error[0] = message;
+            }
+        });
+        assertNull(error[0]);
+
+        JSObject[] given = new JSObject[1];
+        implementation.isConsentGiven(other.get(0).getTemplateId(), new CapacitorUsercentrics.CMPDataCallback() {
+            @Override
+            public void onSuccess(JSObject result) {
+                given[0] = result;
+            }
+
+            @Override
+            public void onError(String message) {}
+        });
+        assertEquals(other.get(0).getStatus(), given[0].getBoolean("given", null));
+        assertTrue(implementation.getConsentBootstrapScript().contains("\"other-user\""));
+
+        // TCF data would still be the previous user's, it is read once the SDK caught up
+        implementation.getTCFData(new JSObject(), new CapacitorUsercentrics.CMPDataCallback() {
+            @Override
+            public void onSuccess(JSObject result) {}
+
+            @Override
+            public void onError(String message) {}
+        });
+        assertEquals(0, backend.tcfReads);
+        backend.restore.onReady(false, other);
+        assertEquals(1, backend.tcfReads);
+
+        implementation.shutdown();
+        context.delete();
+    }
+
+    @Test
+    public void savedSessionRestoresFromCache() throws IOException {
+        SlowRestoreBackend backend = new SlowRestoreBackend();
+        FakeContext context = new FakeContext();
+        CapacitorUsercentrics implementation = new CapacitorUsercentrics(backend);
+        implementation.setContext(context);
+        implementation.setSessionCache(cache);
+
+        String[] saved = new String[1];
+        implementation.saveUserSession(new CapacitorUsercentrics.SessionCallback() {
+            @Override
+            public void onSuccess(String controllerId) {
+                saved[0] = controllerId;
+            }
+
+            @Override
+            public void onError(String error) {}
+        });
+        assertEquals(backend.getControllerId(), saved[0]);
+
+        // Resolves before the SDK restore answers, i.e. from the entry saveUserSession wrote
+        boolean[] restored = new boolean[1];
+        implementation.restoreUserSession(saved[0], new CapacitorUsercentrics.Callback() {
+            @Override
+            public void onSuccess() {
+                restored[0] = true;
+            }
+
+            @Override
+            public void onError(String error) {}
+        });
+        assertTrue(restored[0]);
+
+        implementation.shutdown();
+        context.delete();
+    }
+
+    @Test
+    public void tcfReadsFailWhenRestoreNeverAnswers() throws Exception {
+        SlowRestoreBackend backend = new SlowRestoreBackend();
+        CapacitorUsercentrics implementation = new CapacitorUsercentrics(backend);
+        implementation.setSessionCache(cache);
+        implementation.setRestoreTimeoutMillis(50);
+        cache.put("other-user", backend.getConsents());
+
+        implementation.restoreUserSession("other-user", new CapacitorUsercentrics.Callback() {
+            @Override
+            public void onSuccess() {}
+
+            @Override
+            public void onError(String error) {}
+        });
+        CountDownLatch failed = new CountDownLatch(1);
+        String[] error = new String[1];
+        implementation.getTCFData(new JSObject(), new CapacitorUsercentrics.CMPDataCallback() {
+            @Override
+            public void onSuccess(JSObject result) {}
+
+            @Override
+            public void onError(String message) {
+                error[0] = message;
+                failed.countDown();
+            }
+        });
+
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        assertEquals("Timed out restoring the user session", error[0]);
+        assertEquals(0, backend.tcfReads);
+        // A late SDK answer has nothing left to release
+        backend.restore.onReady(false, backend.getConsents());
+        assertEquals(0, backend.tcfReads);
+        implementation.shutdown();
+    }
+}
@@ -0,0 +1,161 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSObject;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class StartupCoordinatorTest {
+
+    static class Result implements CapacitorUsercentrics.Callback {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile String error;
+
+        @Override
+        public void onSuccess() {
+            done.countDown();
+        }
+
+        @Override
+        public void onError(String error) {
+            this.error = error;
+            done.countDown();
+        }
+
+        Result await() throws InterruptedException {
+            assertTrue("callback not invoked", done.await(5, TimeUnit.SECONDS));
+            return this;
+        }
+    }
+
+    @Test
+    public void sameConfigurationRunsOnce() throws InterruptedException {
+        StartupCoordinator coordinator = new StartupCoordinator();
+        AtomicInteger runs = new AtomicInteger();
+
+        configure(coordinator, runs);
+        configure(coordinator, runs);
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void configureAfterResetRunsAgain() throws InterruptedException {
+        StartupCoordinator coordinator = new StartupCoordinator();
+        AtomicInteger runs = new AtomicInteger();
+
+        configure(coordinator, runs);
+        coordinator.reset();
+        configure(coordinator, runs);
+
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void configureWithOtherOptionsFailsSupersededCaller() throws InterruptedException {
+        StartupCoordinator coordinator = new StartupCoordinator();
+        CountDownLatch release = new CountDownLatch(1);
+        Result first = new Result();
+        Result attached = new Result();
+        Result waiter = new Result();
+        coordinator.configure("eu", false, c -> release.await(), first);
+        coordinator.configure("eu", false, c -> {}, attached);
+        coordinator.whenConfigured(waiter);
+
+        Result second = new Result();
+        coordinator.configure("us", false, c -> {}, second);
+
+        // Failed right away, the first run never reports an outcome for options now replaced
+        assertEquals(StartupCoordinator.SUPERSEDED, first.await().error);
+        assertEquals(StartupCoordinator.SUPERSEDED, attached.await().error);
+        release.countDown();
+        assertNull(second.await().error);
+        assertNull(waiter.await().error);
+        coordinator.shutdown();
+    }
+
+    @Test
+    public void supersedingRunFailureReachesOnlyItsCallers() throws InterruptedException {
+        StartupCoordinator coordinator = new StartupCoordinator();
+        CountDownLatch release = new CountDownLatch(1);
+        Result first = new Result();
+        coordinator.configure("eu", false, c -> release.await(), first);
+
+        Result second = new Result();
+        coordinator.configure("us", false, c -> {
+            throw new IllegalStateException("invalid settingsId");
+        }, second);
+        release.countDown();
+
+        assertEquals(StartupCoordinator.SUPERSEDED, first.await().error);
+        assertEquals("invalid settingsId", second.await().error);
+        coordinator.shutdown();
+    }
+
+    private static void configure(StartupCoordinator coordinator, AtomicInteger runs) throws InterruptedException {
+        Result result = new Result();
+        coordinator.configure("eu", false, c -> runs.incrementAndGet(), result);
+        assertNull(result.await().error);
+    }
+
+    @Test
+    public void sdkIsUsableAfterResetAndConfigure() throws Exception {
+        FakeContext context = new FakeContext();
+        FakeUsercentricsBackend backend = new FakeUsercentricsBackend(10, 5);
+        CapacitorUsercentrics implementation = new CapacitorUsercentrics(backend);
+        implementation.setContext(context);
+        JSObject options = new JSObject();
+        options.put("settingsId", "settings");
+
+        configure(implementation, options);
+        Result reset = new Result();
+        implementation.reset(reset);
+        reset.await();
+        configure(implementation, options);
+
+        Result consents = new Result();
+        implementation.getConsents(new CapacitorUsercentrics.ConsentsCallback() {
+            @Override
+            public void onSuccess(JSObject result) {
+                consents.onSuccess();
+            }
+
+            @Override
+            public void onError(String error) {
+                consents.onError(error);
+            }
+        });
+
+        assertNull(reset.error);
+        assertNull(consents.await().error);
+        assertEquals(2, backend.getInitializeCalls());
+        implementation.shutdown();
+        context.delete();
+    }
+
+    private static void configure(CapacitorUsercentrics implementation, JSObject options) throws InterruptedException {
+        Result configured = new Result();
+        implementation.configure(options, configured);
+        assertNull(configured.await().error);
+
+        CountDownLatch ready = new CountDownLatch(1);
+        implementation.isReady(new CapacitorUsercentrics.ReadyCallback() {
+            @Override
+            public void onSuccess(JSObject status) {
+                ready.countDown();
+            }
+
+            @Override
+            public void onError(String error) {
+                ready.countDown();
+            }
+        });
+        assertTrue(ready.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,112 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSObject;
+
+import org.junit.Test;
+
+public class TCFIndexTest {
+
+    private static TCFIndex index() {
+        TCFIndex index = new TCFIndex();
+        // Vendors 7, 3 and 12 rely on purpose 1, vendor 3 also on purpose 2
+        index.add(TCFIndex.PURPOSE, 1, 7);
+        index.add(TCFIndex.PURPOSE, 1, 3);
+        index.add(TCFIndex.PURPOSE, 1, 12);
+        index.add(TCFIndex.PURPOSE, 2, 3);
+        index.add(TCFIndex.LEGITIMATE_INTEREST_PURPOSE, 2, 12);
+        index.add(TCFIndex.SPECIAL_FEATURE, 1, 7);
+        // Stack 5 bundles purposes 1 and 4
+        index.add(TCFIndex.STACK, 5, 4);
+        index.add(TCFIndex.STACK, 5, 1);
+        return index;
+    }
+
+    @Test
+    public void looksUpVendorsByPurposeAndFeature() {
+        TCFIndex index = index();
+
+        assertArrayEquals(new int[] { 3, 7, 12 }, index.lookup(TCFIndex.PURPOSE, 1));
+        assertArrayEquals(new int[] { 3 }, index.lookup(TCFIndex.PURPOSE, 2));
+        assertArrayEquals(new int[] { 12 }, index.lookup(TCFIndex.LEGITIMATE_INTEREST_PURPOSE, 2));
+        assertArrayEquals(new int[] { 7 }, index.lookup(TCFIndex.SPECIAL_FEATURE, 1));
+    }
+
+    @Test
+    public void looksUpPurposesByStack() {
+        assertArrayEquals(new int[] { 1, 4 }, index().lookup(TCFIndex.STACK, 5));
+    }
+
+    @Test
+    public void addingTwiceKeepsOneEntry() {
+        TCFIndex index = index();
+        index.add(TCFIndex.PURPOSE, 2, 3);
+
+        assertArrayEquals(new int[] { 3 }, index.lookup(TCFIndex.PURPOSE, 2));
+    }
+
+    @Test
+    public void unknownIdsAreEmpty() {
+        TCFIndex index = index();
+
+        assertEquals(0, index.lookup(TCFIndex.PURPOSE, 99).length);
+        assertEquals(0, index.lookup(TCFIndex.SPECIAL_PURPOSE, 1).length);
+        assertEquals(0, index.lookup(TCFIndex.STACK, 1).length);
+        assertEquals(0, index.lookup("vendor", 1).length);
+        assertEquals(0, new TCFIndex().lookup(TCFIndex.FEATURE, 1).length);
+    }
+
+    @Test
+    public void knowsItsIndexNames() {
+        assertTrue(TCFIndex.isIndex(TCFIndex.PURPOSE));
+        assertTrue(TCFIndex.isIndex(TCFIndex.STACK));
+        assertFalse(TCFIndex.isIndex("vendor"));
+        assertFalse(TCFIndex.isIndex(null));
+    }
+
+    @Test
+    public void cacheRebuildsWhenSnapshotVersionChanges() {
+        TCFIndex.Cache cache = new TCFIndex.Cache();
+        int[] builds = { 0 };
+        TCFIndex.Cache.Builder builder = () -> {
+            builds[0]++;
+            return index();
+        };
+
+        TCFIndex first = cache.get(1, builder);
+        assertSame(first, cache.get(1, builder));
+        assertEquals(1, builds[0]);
+
+        TCFIndex second = cache.get(2, builder);
+        assertNotSame(first, second);
+        assertEquals(2, builds[0]);
+        assertSame(second, cache.get(2, builder));
+        assertEquals(2, builds[0]);
+    }
+
+    @Test
+    public void rejectsUnknownIndexName() {
+        CapacitorUsercentrics implementation = new CapacitorUsercentrics(new FakeUsercentricsBackend(5, 1));
+        String[] error = { null };
+        implementation.queryTCFIndex("vendor", 1, new CapacitorUsercentrics.CMPDataCallback() {
+            @Override
+            public void onSuccess(JSObject result) {
+                error[0] = "resolved";
+            }
+
+            @Override
+            public void onError(String message) {
+                error[0] = message;
+            }
+        });
+
+        assertEquals("Unknown TCF index: vendor", error[0]);
+        implementation.shutdown();
+    }
+}
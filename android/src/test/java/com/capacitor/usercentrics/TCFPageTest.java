@@ -0,0 +1,134 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.getcapacitor.JSObject;
+import com.usercentrics.sdk.UsercentricsServiceConsent;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+public class TCFPageTest {
+
+    private static final int VENDORS = 25;
+
+    @Test
+    public void walksAllPages() {
+        TCFPage first = TCFPage.parse(null, 10);
+        assertTrue(first.isFirst());
+        assertTrue(first.matches(7));
+        assertEquals(0, first.from(VENDORS));
+        assertEquals(10, first.to(VENDORS));
+        assertEquals("7:10", first.nextCursor(7, VENDORS));
+
+        TCFPage next = TCFPage.parse("7:10", 10);
+        assertFalse(next.isFirst());
+        assertEquals(10, next.from(VENDORS));
+        assertEquals(20, next.to(VENDORS));
+        assertEquals("7:20", next.nextCursor(7, VENDORS));
+
+        TCFPage last = TCFPage.parse("7:20", 10);
+        assertEquals(20, last.from(VENDORS));
+        assertEquals(VENDORS, last.to(VENDORS));
+        assertEquals(JSONObject.NULL, last.nextCursor(7, VENDORS));
+    }
+
+    @Test
+    public void withoutPageSizeReturnsAllVendors() {
+        TCFPage page = TCFPage.parse(null, 0);
+
+        assertEquals(0, page.from(VENDORS));
+        assertEquals(VENDORS, page.to(VENDORS));
+        assertEquals(JSONObject.NULL, page.nextCursor(1, VENDORS));
+    }
+
+    @Test
+    public void offsetPastTheEndIsAnEmptyLastPage() {
+        TCFPage page = TCFPage.parse("3:40", Integer.MAX_VALUE);
+
+        assertEquals(VENDORS, page.from(VENDORS));
+        assertEquals(VENDORS, page.to(VENDORS));
+        assertEquals(JSONObject.NULL, page.nextCursor(3, VENDORS));
+    }
+
+    @Test
+    public void outdatedCursorDoesNotMatch() {
+        TCFPage page = TCFPage.parse("7:10", 10);
+
+        assertTrue(page.matches(7));
+        assertFalse(page.matches(8));
+    }
+
+    @Test
+    public void rejectsMalformedCursors() {
+        for (String cursor : Arrays.asList("", "10", "a:1", "1:b", "1:", ":1", "5:-3", "-1:0", "1:2:3")) {
+            assertRejected("Invalid cursor", cursor, 10);
+        }
+        assertRejected("Invalid pageSize", null, -1);
+        assertRejected("Invalid pageSize", "1:10", -5);
+    }
+
+    private static void assertRejected(String message, String cursor, int pageSize) {
+        try {
+            TCFPage.parse(cursor, pageSize);
+            fail("accepted " + cursor + " / " + pageSize);
+        } catch (IllegalArgumentException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    @Test
+    public void getTCFDataReportsInvalidAndOutdatedCursors() {
+        FakeUsercentricsBackend backend = new FakeUsercentricsBackend(5, 1);
+        CapacitorUsercentrics implementation = new CapacitorUsercentrics(backend);
+        backend.isReady(new UsercentricsBackend.ReadyListener() {
+            @Override
+            public void onReady(boolean shouldCollectConsent, List<UsercentricsServiceConsent> consents) {}
+
+            @Override
+            public void onError(String error) {}
+        });
+
+        assertEquals("Invalid cursor", tcfDataError(implementation, "5:-3", 10));
+        assertEquals("Invalid pageSize", tcfDataError(implementation, null, -1));
+        assertEquals("TCF data changed, restart pagination", tcfDataError(implementation, "999:10", 10));
+        implementation.shutdown();
+    }
+
+    private static String tcfDataError(CapacitorUsercentrics implementation, String cursor, int pageSize) {
+        JSObject options = new JSObject();
+        if (cursor != null) options.put("cursor", cursor);
+        options.put("pageSize", pageSize);
+        String[] error = { null };
+        implementation.getTCFData(options, new CapacitorUsercentrics.CMPDataCallback() {
+            @Override
+            public void onSuccess(JSObject result) {
+                error[0] = "resolved";
+            }
+
+            @Override
+            public void onError(String message) {
+                error[0] = message;
+            }
+        });
+        return error[0];
+    }
+
+    @Test
+    public void projectsOnlyRequestedFields() {
+        JSONArray requested = new JSONArray();
+        requested.put("tcString");
+        requested.put("vendors");
+
+        assertEquals(new HashSet<>(Arrays.asList("tcString", "vendors")), TCFDataMapper.fieldSet(requested, TCFDataMapper.ALL_FIELDS));
+        assertEquals(TCFDataMapper.ALL_VENDOR_FIELDS, TCFDataMapper.fieldSet(null, TCFDataMapper.ALL_VENDOR_FIELDS));
+        assertTrue(TCFDataMapper.fieldSet(new JSONArray(), TCFDataMapper.ALL_FIELDS).isEmpty());
+    }
+}
@@ -0,0 +1,99 @@
+package com.capacitor.usercentrics;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Encodes TCF v2 core segments for tests and benchmarks.
+ */
+final class TCStringFixture {
+
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+
+    private final StringBuilder bits = new StringBuilder();
+
+    private TCStringFixture() {}
+
+    static String encode(BitSet purposeConsents, BitSet purposeLegitimateInterests, BitSet vendorConsents, int maxVendorId, BitSet vendorLegitimateInterests, boolean rangeEncoding) {
+        TCStringFixture writer = new TCStringFixture();
+        writer.write(2, 6); // version
+        writer.write(16000000000L, 36); // created
+        writer.write(16000000000L, 36); // last updated
+        writer.write(5, 12); // cmp id
+        writer.write(1, 12); // cmp version
+        writer.write(1, 6); // consent screen
+        writer.write(4 * 64 + 13, 12); // consent language "EN"
+        writer.write(150, 12); // vendor list version
+        writer.write(4, 6); // policy version
+        writer.write(0, 1); // service specific
+        writer.write(0, 1); // non-standard texts
+        writer.writeBitField(new BitSet(), 12); // special feature opt-ins
+        writer.writeBitField(purposeConsents, 24);
+        writer.writeBitField(purposeLegitimateInterests, 24);
+        writer.write(0, 1); // purpose one treatment
+        writer.write(4 * 64 + 4, 12); // publisher cc "EE"
+        writer.writeVendors(vendorConsents, maxVendorId, rangeEncoding);
+        writer.writeVendors(vendorLegitimateInterests, maxVendorId, false);
+        writer.write(0, 12); // no publisher restrictions
+        return writer.toBase64Url();
+    }
+
+    /**
+     * Random vendor consents for maxVendorId vendors with all purposes consented.
+     */
+    static String random(int maxVendorId, long seed, boolean rangeEncoding) {
+        Random random = new Random(seed);
+        BitSet vendors = new BitSet();
+        for (int id = 1; id <= maxVendorId; id++) {
+            if (random.nextBoolean()) vendors.set(id);
+        }
+        BitSet purposes = new BitSet();
+        purposes.set(1, 11);
+        return encode(purposes, new BitSet(), vendors, maxVendorId, new BitSet(), rangeEncoding);
+    }
+
+    private void write(long value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            bits.append(((value >>> i) & 1) == 1 ? '1' : '0');
+        }
+    }
+
+    private void writeBitField(BitSet values, int width) {
+        for (int id = 1; id <= width; id++) {
+            bits.append(values.get(id) ? '1' : '0');
+        }
+    }
+
+    private void writeVendors(BitSet vendors, int maxVendorId, boolean rangeEncoding) {
+        write(maxVendorId, 16);
+        write(rangeEncoding ? 1 : 0, 1);
+        if (!rangeEncoding) {
+            writeBitField(vendors, maxVendorId);
+            return;
+        }
+        StringBuilder entries = new StringBuilder();
+        int count = 0;
+        int id = vendors.nextSetBit(1);
+        while (id > 0 && id <= maxVendorId) {
+            int end = vendors.nextClearBit(id) - 1;
+            TCStringFixture entry = new TCStringFixture();
+            entry.write(end > id ? 1 : 0, 1);
+            entry.write(id, 16);
+            if (end > id) entry.write(end, 16);
+            entries.append(entry.bits);
+            count++;
+            id = vendors.nextSetBit(end + 1);
+        }
+        write(count, 12);
+        bits.append(entries);
+    }
+
+    private String toBase64Url() {
+        while (bits.length() % 6 != 0) bits.append('0');
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < bits.length(); i += 6) {
+            out.append(ALPHABET.charAt(Integer.parseInt(bits.substring(i, i + 6), 2)));
+        }
+        return out.toString();
+    }
+}
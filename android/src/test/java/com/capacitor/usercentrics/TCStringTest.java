@@ -0,0 +1,62 @@
+package com.capacitor.usercentrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import org.junit.Test;
+
+public class TCStringTest {
+
+    private static BitSet bits(int... ids) {
+        BitSet set = new BitSet();
+        for (int id : ids) set.set(id);
+        return set;
+    }
+
+    @Test
+    public void decodesBitFieldVendors() {
+        String encoded = TCStringFixture.encode(bits(1, 3, 7), bits(2, 7), bits(2, 10, 11), 12, bits(4), false);
+        TCString tcString = TCString.decode(encoded + ".YAAAAAAAAAAA");
+
+        assertEquals(2, tcString.version);
+        assertEquals(150, tcString.vendorListVersion);
+        assertTrue(tcString.hasPurposeConsent(3));
+        assertFalse(tcString.hasPurposeConsent(2));
+        assertTrue(tcString.hasVendorConsent(10));
+        assertFalse(tcString.hasVendorConsent(4));
+        assertTrue(tcString.hasVendorConsent(2, new int[] { 1, 3 }, false));
+        assertFalse(tcString.hasVendorConsent(2, new int[] { 1, 2 }, false));
+    }
+
+    @Test
+    public void decodesRangeVendors() {
+        BitSet vendors = new BitSet();
+        vendors.set(5, 300);
+        vendors.set(755);
+        String encoded = TCStringFixture.encode(bits(1), new BitSet(), vendors, 800, new BitSet(), true);
+        TCString tcString = TCString.decode(encoded);
+
+        assertTrue(tcString.hasVendorConsent(5));
+        assertTrue(tcString.hasVendorConsent(299));
+        assertFalse(tcString.hasVendorConsent(300));
+        assertTrue(tcString.hasVendorConsent(755));
+        assertFalse(tcString.hasVendorConsent(800));
+    }
+
+    @Test
+    public void legitimateInterestCoversPurposesOnlyWhenAllowed() {
+        String encoded = TCStringFixture.encode(bits(1), bits(7), bits(), 10, bits(9), false);
+        TCString tcString = TCString.decode(encoded);
+
+        assertFalse(tcString.hasVendorConsent(9, new int[] { 7 }, false));
+        assertTrue(tcString.hasVendorConsent(9, new int[] { 7 }, true));
+        assertFalse(tcString.hasVendorConsent(9, new int[] { 1 }, true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTruncatedStrings() {
+        TCString.decode("CAAAAA");
+    }
+}
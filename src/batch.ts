@@ -0,0 +1,18 @@
+import type { UsercentricsBatchResponse, UsercentricsBatchResult } from './definitions';
+
+const SHARED_CONSENTS_REF = '$shared.consents';
+
+/**
+ * Resolves the `"$shared.consents"` references of a batch response back into the shared array.
+ */
+export function expandBatchResults(response: UsercentricsBatchResponse): UsercentricsBatchResult[] {
+  const consents = response.shared?.consents;
+  if (!consents) {
+    return response.results;
+  }
+  return response.results.map(result =>
+    result.ok && result.value?.consents === SHARED_CONSENTS_REF
+      ? { ok: true, value: { ...result.value, consents } }
+      : result,
+  );
+}
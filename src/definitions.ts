@@ -1,3 +1,5 @@
+import type { PluginListenerHandle } from '@capacitor/core';
+
 export interface UsercentricsOptions {
   settingsId: string;
   defaultLanguage?: string;
@@ -8,6 +10,163 @@ export interface UsercentricsOptions {
   consentMediation?: boolean;
 }
 
+/**
+ * Options read from `plugins.CapacitorUsercentrics` in capacitor.config.
+ * With `preinitialize` set, Android starts initialization when the plugin loads.
+ * `maxCachedConfigurations` (default 4) and `maxConfigurationCacheBytes` (default 4 MiB)
+ * bound the Android cache of prepared configurations.
+ */
+export interface UsercentricsPluginConfig extends UsercentricsOptions {
+  preinitialize?: boolean;
+  maxCachedConfigurations?: number;
+  maxConfigurationCacheBytes?: number;
+}
+
+/**
+ * Phase timings in milliseconds, -1 when the phase has not completed yet.
+ */
+export interface UsercentricsStartupTimings {
+  /** True when initialization was started from capacitor.config at plugin load. */
+  preinitialized: boolean;
+  optionsParseMs: number;
+  initializeMs: number;
+  firstReadyMs: number;
+}
+
+export interface UsercentricsOperationMetrics {
+  count: number;
+  errors: number;
+  p50Ms: number;
+  p95Ms: number;
+  p99Ms: number;
+  maxMs: number;
+}
+
+export interface UsercentricsExecutorLaneStats {
+  depth: number;
+  maxDepth: number;
+  submitted: number;
+  rejected: number;
+  capacity: number;
+}
+
+/**
+ * Native call queues: `ui` (banner), `gating` (consent checks and mutations) and `bulk` (TCF and CMP data).
+ * Queue wait times are part of getMetrics as `queue.serial.<lane>` and `queue.read.<lane>`.
+ */
+export interface UsercentricsExecutorStats {
+  lanes: Record<'ui' | 'gating' | 'bulk', UsercentricsExecutorLaneStats>;
+  readThreads: number;
+}
+
+/**
+ * A prepared configuration, keyed `settingsId|rulesetId|version|defaultLanguage`.
+ * `estimatedBytes` approximates the heap held by its mapped CMP data.
+ */
+export interface UsercentricsCachedConfiguration {
+  key: string;
+  estimatedBytes: number;
+  hits: number;
+  lastUsed: number;
+  active: boolean;
+}
+
+export interface UsercentricsConfigurationCacheStats {
+  entries: UsercentricsCachedConfiguration[];
+  estimatedBytes: number;
+  maxEntries: number;
+  maxBytes: number;
+  hits: number;
+  misses: number;
+  evictions: number;
+}
+
+export interface UsercentricsConfigurationEvictedEvent {
+  key: string;
+  estimatedBytes: number;
+  reason: 'entries' | 'bytes';
+}
+
+export interface UsercentricsMetrics {
+  enabled: boolean;
+  /**
+   * Plugin calls are keyed by method name, native SDK time by `sdk.<call>` and
+   * serialization by `serialize.<payload>`.
+   */
+  operations: Record<string, UsercentricsOperationMetrics>;
+}
+
+export interface UsercentricsConsentStatus {
+  given: boolean;
+  /** False when the templateId is not part of the current consent state. */
+  known: boolean;
+}
+
+/**
+ * Bit i of the bitmap is set when templateIds[i] is granted:
+ * `(bitmap[i >>> 5] >>> (i & 31)) & 1`. Unknown templateIds read as denied.
+ */
+export interface UsercentricsConsentStatuses {
+  count: number;
+  unknown: number;
+  bitmap: number[];
+}
+
+export type UsercentricsCMPDataSection = 'settings' | 'services' | 'categories' | 'legalBasis';
+
+export interface UsercentricsCMPDataOptions {
+  /**
+   * Sections to return, all of them when omitted. Each section is serialized once per settings version.
+   */
+  sections?: UsercentricsCMPDataSection[];
+}
+
+export interface UsercentricsTCFDataOptions {
+  /**
+   * Top-level fields to return, defaults to all of them: tcString, features, purposes,
+   * specialFeatures, specialPurposes, stacks, thirdPartyCount, vendors.
+   */
+  fields?: string[];
+  /**
+   * Vendor fields to return, defaults to all of them: id, name, consent, legitimateInterestConsent,
+   * purposes, legitimateInterestPurposes, specialPurposes, features, specialFeatures, policyUrl.
+   */
+  vendorFields?: string[];
+  /** Vendors per page, all vendors when omitted. */
+  pageSize?: number;
+  /** `nextCursor` of the previous page. Pages after the first only contain vendors. */
+  cursor?: string;
+}
+
+/**
+ * `purpose`, `legitimateInterestPurpose`, `specialPurpose`, `feature` and `specialFeature`
+ * map an id to vendor ids, `stack` maps a stack id to purpose ids.
+ */
+export type UsercentricsTCFIndex =
+  | 'purpose'
+  | 'legitimateInterestPurpose'
+  | 'specialPurpose'
+  | 'feature'
+  | 'specialFeature'
+  | 'stack';
+
+export interface UsercentricsVendorConsentQuery {
+  /** IAB vendor id. */
+  vendorId: number;
+  /** Purposes the vendor needs, all must be covered. Empty checks vendor consent only. */
+  purposeIds?: number[];
+}
+
+export interface UsercentricsVendorConsentOptions extends UsercentricsVendorConsentQuery {
+  /** Also accept purposes covered by legitimate interest. */
+  allowLegitimateInterest?: boolean;
+}
+
+export interface UsercentricsVendorConsentsOptions {
+  queries: UsercentricsVendorConsentQuery[];
+  allowLegitimateInterest?: boolean;
+}
+
 export interface UsercentricsConsent {
   templateId: string;
   status: boolean;
@@ -23,6 +182,11 @@ export interface UsercentricsReadyStatus {
   consents: UsercentricsConsent[];
   usercentricsReady?: boolean;
   controllerId?: string;
+  /**
+   * Number of logged consent decisions the SDK had not confirmed before the app was
+   * killed, replayed on this start (Android only).
+   */
+  replayed?: number;
 }
 
 export interface UsercentricsBannerResult {
@@ -31,19 +195,205 @@ export interface UsercentricsBannerResult {
   controllerId?: string;
 }
 
+export interface UsercentricsApplyOptions {
+  /** Re-apply every service even if its status and version are unchanged. */
+  force?: boolean;
+}
+
+export type UsercentricsBatchMethod =
+  | 'isReady'
+  | 'getConsents'
+  | 'saveUserSession'
+  | 'getStartupTimings'
+  | 'isConsentGiven'
+  | 'getConsentStatuses'
+  | 'getCMPData'
+  | 'getTCFData'
+  | 'queryTCFIndex'
+  | 'hasVendorConsent'
+  | 'hasVendorConsents';
+
+export interface UsercentricsBatchOp {
+  method: UsercentricsBatchMethod;
+  /** The options the method takes when called on its own */
+  options?: Record<string, any>;
+}
+
+export type UsercentricsBatchResult = { ok: true; value: any } | { ok: false; error: string };
+
+/**
+ * `results[i]` answers `ops[i]`. A consents array returned by several operations is sent once as
+ * `shared.consents` and replaced by the string `"$shared.consents"`, see `expandBatchResults`.
+ */
+export interface UsercentricsBatchResponse {
+  stateVersion: number;
+  shared: { consents?: UsercentricsConsent[] };
+  results: UsercentricsBatchResult[];
+}
+
+export interface UsercentricsConsentEntryError {
+  /** Key of the rejected entry in the consents object */
+  key: string;
+  error: string;
+}
+
+/**
+ * Entries are validated one by one, invalid ones are skipped and reported while the rest are applied.
+ */
+export interface UsercentricsConsentWriteResult {
+  accepted: number;
+  errors: UsercentricsConsentEntryError[];
+}
+
+export interface UsercentricsConsentPayload extends UsercentricsApplyOptions {
+  consents: Record<string, UsercentricsConsent>;
+  /**
+   * saveConsent only: merge saves arriving within this window (last write wins per templateId)
+   * into a single persist and apply pass. Disabled when omitted or 0.
+   */
+  batchWindowMillis?: number;
+}
+
+export interface UsercentricsConsentChange {
+  templateId: string;
+  oldStatus: boolean | null;
+  newStatus: boolean | null;
+}
+
+export interface UsercentricsConsentChangedEvent {
+  seq: number;
+  changes: UsercentricsConsentChange[];
+}
+
+export interface UsercentricsConsentApplyResult {
+  templateId: string;
+  status: boolean;
+  outcome: 'applied' | 'failed' | 'timeout' | 'rejected' | 'superseded';
+  durationMs: number;
+  error?: string;
+}
+
+export interface UsercentricsConsentAppliedEvent {
+  results: UsercentricsConsentApplyResult[];
+}
+
+/**
+ * Emitted when an SDK initializer registered natively has run after its consent was granted.
+ */
+export interface UsercentricsSdkInitializedEvent {
+  templateId: string;
+  outcome: 'initialized' | 'failed';
+  durationMs: number;
+  error?: string;
+}
+
+export type UsercentricsSdkInitState = 'waiting' | 'queued' | 'initialized' | 'failed';
+
+/**
+ * Last known consent state, defined natively as `window.UsercentricsBootstrap` before the first page
+ * script runs (Android WebViews with document-start script support). It is read-only and is not
+ * updated while the page runs; use `consentChanged` for live updates.
+ */
+export interface UsercentricsBootstrap {
+  controllerId: string | null;
+  tcString: string | null;
+  templateIds: readonly string[];
+  /** Bit i of the 32-bit words is set when templateIds[i] is granted */
+  bitmap: readonly number[];
+  updatedAt: number;
+  isGranted(templateId: string): boolean;
+}
+
+declare global {
+  interface Window {
+    UsercentricsBootstrap?: UsercentricsBootstrap;
+  }
+}
+
 export interface CapacitorUsercentricsPlugin {
+  /**
+   * Initializes the SDK, at most once per set of options. Calls with the same options share the
+   * run in flight. A call with other options while a run is in flight supersedes it, and the
+   * superseded calls reject.
+   */
   configure(options: UsercentricsOptions): Promise<void>;
   isReady(): Promise<UsercentricsReadyStatus>;
+  getStartupTimings(): Promise<UsercentricsStartupTimings>;
   showBanner(): Promise<UsercentricsBannerResult>;
+  /**
+   * Prepares the banner ahead of time so showBanner/showSecondLayer can reuse it.
+   */
+  preloadBanner(): Promise<void>;
   showSecondLayer(): Promise<UsercentricsBannerResult>;
   reset(): Promise<void>;
   getConsents(): Promise<UsercentricsConsent[]>;
-  getCMPData(): Promise<any>;
-  getTCFData(): Promise<any>;
-  acceptAll(): Promise<void>;
-  denyAll(): Promise<void>;
-  applyConsent(consents: Record<string, UsercentricsConsent>): Promise<void>;
-  saveConsent(consents: Record<string, UsercentricsConsent>): Promise<void>;
-  restoreUserSession(userSession: string): Promise<void>;
-  saveUserSession(): Promise<{ session: string }>;
+  isConsentGiven(options: { templateId: string }): Promise<UsercentricsConsentStatus>;
+  getConsentStatuses(options: { templateIds: string[] }): Promise<UsercentricsConsentStatuses>;
+  /**
+   * Resolves `{ version, cmpData }` where `cmpData` holds the requested sections.
+   */
+  getCMPData(options?: UsercentricsCMPDataOptions): Promise<any>;
+  getTCFData(options?: UsercentricsTCFDataOptions): Promise<any>;
+  /**
+   * Looks up the ids indexed under `id`, e.g. the vendors relying on purpose 7 under legitimate interest.
+   */
+  queryTCFIndex(options: { index: UsercentricsTCFIndex; id: number }): Promise<{ ids: number[] }>;
+  /**
+   * Answers from the decoded TC string whether the vendor may process data for the purposes.
+   */
+  hasVendorConsent(options: UsercentricsVendorConsentOptions): Promise<{ granted: boolean }>;
+  /**
+   * Batch variant of hasVendorConsent, `granted[i]` answers `queries[i]`.
+   */
+  hasVendorConsents(options: UsercentricsVendorConsentsOptions): Promise<{ granted: boolean[] }>;
+  /**
+   * Runs up to 32 read operations against one consent state in a single bridge call.
+   */
+  batch(options: { ops: UsercentricsBatchOp[] }): Promise<UsercentricsBatchResponse>;
+  acceptAll(options?: UsercentricsApplyOptions): Promise<void>;
+  denyAll(options?: UsercentricsApplyOptions): Promise<void>;
+  applyConsent(consents: Record<string, UsercentricsConsent> | UsercentricsConsentPayload): Promise<UsercentricsConsentWriteResult>;
+  saveConsent(consents: Record<string, UsercentricsConsent> | UsercentricsConsentPayload): Promise<UsercentricsConsentWriteResult>;
+  /**
+   * Restores the consents of a controllerId, e.g. the one returned by `saveUserSession`. Sessions
+   * seen on this device resolve from a local cache and reconcile with the SDK in the background,
+   * emitting `consentChanged` on differences.
+   */
+  restoreUserSession(controllerId: string): Promise<void>;
+  /**
+   * Returns the current user's controllerId, the key `restoreUserSession` takes.
+   */
+  saveUserSession(): Promise<{ controllerId: string }>;
+  getMetrics(): Promise<UsercentricsMetrics>;
+  resetMetrics(): Promise<void>;
+  getExecutorStats(): Promise<UsercentricsExecutorStats>;
+  /**
+   * Configurations prepared by earlier configure calls, the least recently used ones are
+   * evicted (Android only). The cached state is the mapped CMP data of each configuration;
+   * switching back still initializes the SDK again, which is a singleton, and only skips
+   * re-mapping the CMP data. `estimatedBytes` covers the mapped sections.
+   */
+  getConfigurationCacheStats(): Promise<UsercentricsConfigurationCacheStats>;
+  setMetricsEnabled(options: { enabled: boolean }): Promise<void>;
+  /**
+   * State of each natively registered SDK initializer, keyed by templateId.
+   */
+  getSdkInitStatus(): Promise<Record<string, UsercentricsSdkInitState>>;
+  addListener(
+    eventName: 'consentChanged',
+    listenerFunc: (event: UsercentricsConsentChangedEvent) => void,
+  ): Promise<PluginListenerHandle>;
+  addListener(
+    eventName: 'consentApplied',
+    listenerFunc: (event: UsercentricsConsentAppliedEvent) => void,
+  ): Promise<PluginListenerHandle>;
+  addListener(
+    eventName: 'sdkInitialized',
+    listenerFunc: (event: UsercentricsSdkInitializedEvent) => void,
+  ): Promise<PluginListenerHandle>;
+  addListener(
+    eventName: 'configurationEvicted',
+    listenerFunc: (event: UsercentricsConfigurationEvictedEvent) => void,
+  ): Promise<PluginListenerHandle>;
+  removeAllListeners(): Promise<void>;
 }
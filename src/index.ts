@@ -7,4 +7,5 @@ const CapacitorUsercentrics = registerPlugin<CapacitorUsercentricsPlugin>('Capac
 });
 
 export * from './definitions';
+export { expandBatchResults } from './batch';
 export { CapacitorUsercentrics };
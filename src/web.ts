@@ -1,11 +1,16 @@
 import { WebPlugin } from '@capacitor/core';
 
-import type { CapacitorUsercentricsPlugin, UsercentricsOptions, UsercentricsReadyStatus, UsercentricsBannerResult, UsercentricsConsent } from './definitions';
+import type { CapacitorUsercentricsPlugin, UsercentricsOptions, UsercentricsReadyStatus, UsercentricsBannerResult, UsercentricsConsent, UsercentricsConsentChange, UsercentricsConsentPayload, UsercentricsBatchOp, UsercentricsBatchResponse, UsercentricsBatchResult, UsercentricsConsentEntryError, UsercentricsConsentWriteResult, UsercentricsStartupTimings, UsercentricsMetrics, UsercentricsExecutorStats, UsercentricsConfigurationCacheStats, UsercentricsSdkInitState, UsercentricsConsentStatus, UsercentricsConsentStatuses } from './definitions';
+
+// Keys of UsercentricsConsentPayload that are call options, ConsentPayloadParser.OPTION_KEYS on Android
+const CONSENT_OPTION_KEYS = ['force', 'batchWindowMillis'];
 
 export class CapacitorUsercentricsWeb extends WebPlugin implements CapacitorUsercentricsPlugin {
   
   private usercentrics: any = null;
   private isConfigured = false;
+  private lastStatuses = new Map<string, boolean>();
+  private consentSeq = 0;
 
   async configure(options: UsercentricsOptions): Promise<void> {
     return new Promise((resolve, reject) => {
@@ -63,6 +68,7 @@ export class CapacitorUsercentricsWeb extends WebPlugin implements CapacitorUser
           usercentricsReady: status.usercentricsReady,
           controllerId: status.controllerId
         };
+        result.consents.forEach(c => this.lastStatuses.set(c.templateId, c.status));
         resolve(result);
       }, (error: string) => {
         reject(error);
@@ -70,6 +76,10 @@ export class CapacitorUsercentricsWeb extends WebPlugin implements CapacitorUser
     });
   }
 
+  async getStartupTimings(): Promise<UsercentricsStartupTimings> {
+    return { preinitialized: false, optionsParseMs: -1, initializeMs: -1, firstReadyMs: -1 };
+  }
+
   async showBanner(): Promise<UsercentricsBannerResult> {
     return new Promise((resolve, reject) => {
       if (!this.isConfigured || !this.usercentrics) {
@@ -84,12 +94,20 @@ export class CapacitorUsercentricsWeb extends WebPlugin implements CapacitorUser
           controllerId: response.controllerId
         };
         resolve(result);
+        this.emitConsentChanges(result.consents);
       }, (error: string) => {
         reject(error);
       });
     });
   }
 
+  async preloadBanner(): Promise<void> {
+    if (!this.isConfigured || !this.usercentrics) {
+      throw new Error('Usercentrics not configured');
+    }
+    // The browser UI is loaded with the script, nothing to prepare
+  }
+
   async showSecondLayer(): Promise<UsercentricsBannerResult> {
     return new Promise((resolve, reject) => {
       if (!this.isConfigured || !this.usercentrics) {
@@ -104,6 +122,7 @@ export class CapacitorUsercentricsWeb extends WebPlugin implements CapacitorUser
           controllerId: response.controllerId
         };
         resolve(result);
+        this.emitConsentChanges(result.consents);
       }, (error: string) => {
         reject(error);
       });
@@ -116,6 +135,11 @@ export class CapacitorUsercentricsWeb extends WebPlugin implements CapacitorUser
     }
 
     this.usercentrics.reset();
+
+    const changes: UsercentricsConsentChange[] = [];
+    this.lastStatuses.forEach((status, templateId) => changes.push({ templateId, oldStatus: status, newStatus: null }));
+    this.lastStatuses.clear();
+    this.notifyConsentChanges(changes);
   }
 
   async getConsents(): Promise<UsercentricsConsent[]> {
@@ -127,6 +151,26 @@ export class CapacitorUsercentricsWeb extends WebPlugin implements CapacitorUser
     return this.convertConsents(consents);
   }
 
+  async isConsentGiven(options: { templateId: string }): Promise<UsercentricsConsentStatus> {
+    const consent = (await this.getConsents()).find(c => c.templateId === options.templateId);
+    return { given: !!consent?.status, known: !!consent };
+  }
+
+  async getConsentStatuses(options: { templateIds: string[] }): Promise<UsercentricsConsentStatuses> {
+    const statuses = new Map((await this.getConsents()).map(c => [c.templateId, c.status] as [string, boolean]));
+    const bitmap: number[] = new Array((options.templateIds.length + 31) >>> 5).fill(0);
+    let unknown = 0;
+    options.templateIds.forEach((templateId, i) => {
+      const status = statuses.get(templateId);
+      if (status === undefined) {
+        unknown++;
+      } else if (status) {
+        bitmap[i >>> 5] |= 1 << (i & 31);
+      }
+    });
+    return { count: options.templateIds.length, unknown, bitmap };
+  }
+
   async getCMPData(): Promise<any> {
     if (!this.isConfigured || !this.usercentrics) {
       throw new Error('Usercentrics not configured');
@@ -143,20 +187,70 @@ export class CapacitorUsercentricsWeb extends WebPlugin implements CapacitorUser
     return this.usercentrics.getTCFData();
   }
 
-  async restoreUserSession(userSession: string): Promise<void> {
+  async queryTCFIndex(): Promise<{ ids: number[] }> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async hasVendorConsent(): Promise<{ granted: boolean }> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async hasVendorConsents(): Promise<{ granted: boolean[] }> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async restoreUserSession(controllerId: string): Promise<void> {
     if (!this.isConfigured || !this.usercentrics) {
       throw new Error('Usercentrics not configured');
     }
 
-    this.usercentrics.restoreUserSession(userSession);
+    this.usercentrics.restoreUserSession(controllerId);
   }
 
-  async saveUserSession(): Promise<{ session: string }> {
+  async saveUserSession(): Promise<{ controllerId: string }> {
     if (!this.isConfigured || !this.usercentrics) {
       throw new Error('Usercentrics not configured');
     }
 
-    return { session: this.usercentrics.saveUserSession() };
+    return { controllerId: this.usercentrics.getControllerId() };
+  }
+
+  async getMetrics(): Promise<UsercentricsMetrics> {
+    return { enabled: false, operations: {} };
+  }
+
+  async resetMetrics(): Promise<void> {
+    // Metrics are only collected natively
+  }
+
+  async getSdkInitStatus(): Promise<Record<string, UsercentricsSdkInitState>> {
+    // SDK initializers are registered natively
+    return {};
+  }
+
+  async getExecutorStats(): Promise<UsercentricsExecutorStats> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async getConfigurationCacheStats(): Promise<UsercentricsConfigurationCacheStats> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async setMetricsEnabled(): Promise<void> {
+    // Metrics are only collected natively
+  }
+
+  async batch(options: { ops: UsercentricsBatchOp[] }): Promise<UsercentricsBatchResponse> {
+    const results: UsercentricsBatchResult[] = [];
+    for (const op of options.ops) {
+      try {
+        const method = this[op.method] as unknown as (options?: Record<string, any>) => Promise<any>;
+        results.push({ ok: true, value: await method.call(this, op.options) });
+      } catch (e) {
+        results.push({ ok: false, error: e instanceof Error ? e.message : String(e) });
+      }
+    }
+    return { stateVersion: this.consentSeq, shared: {}, results };
   }
 
   async acceptAll(): Promise<void> {
@@ -164,6 +258,7 @@ export class CapacitorUsercentricsWeb extends WebPlugin implements CapacitorUser
       throw new Error('Usercentrics not configured');
     }
     this.usercentrics.acceptAll();
+    this.emitConsentChanges(this.convertConsents(this.usercentrics.getConsents()));
   }
 
   async denyAll(): Promise<void> {
@@ -171,25 +266,81 @@ export class CapacitorUsercentricsWeb extends WebPlugin implements CapacitorUser
       throw new Error('Usercentrics not configured');
     }
     this.usercentrics.denyAll();
+    this.emitConsentChanges(this.convertConsents(this.usercentrics.getConsents()));
   }
 
-  async applyConsent(consents: Record<string, UsercentricsConsent>): Promise<void> {
+  async applyConsent(consents: Record<string, UsercentricsConsent> | UsercentricsConsentPayload): Promise<UsercentricsConsentWriteResult> {
     if (!this.isConfigured || !this.usercentrics) {
       throw new Error('Usercentrics not configured');
     }
     // On web, we can consider "apply" as saving to runtime consumers only; if SDK exposes a method, wire it here.
     // No-op fallback.
-    void consents;
+    return this.validateConsents(this.unwrapConsents(consents)).result;
   }
 
-  async saveConsent(consents: Record<string, UsercentricsConsent>): Promise<void> {
+  async saveConsent(consents: Record<string, UsercentricsConsent> | UsercentricsConsentPayload): Promise<UsercentricsConsentWriteResult> {
     if (!this.isConfigured || !this.usercentrics) {
       throw new Error('Usercentrics not configured');
     }
-    const decisions = Object.values(consents).map(c => ({ templateId: c.templateId, status: c.status }));
-    if (typeof this.usercentrics.saveDecisions === 'function') {
+    const { decisions, result } = this.validateConsents(this.unwrapConsents(consents));
+    if (decisions.length > 0 && typeof this.usercentrics.saveDecisions === 'function') {
       this.usercentrics.saveDecisions(decisions, 'explicit');
     }
+    this.emitConsentChanges(this.convertConsents(this.usercentrics.getConsents()));
+    return result;
+  }
+
+  private validateConsents(consents: Record<string, UsercentricsConsent>) {
+    const decisions: { templateId: string; status: boolean }[] = [];
+    const errors: UsercentricsConsentEntryError[] = [];
+    Object.keys(consents).forEach(key => {
+      const entry = consents[key] as Partial<UsercentricsConsent> | null;
+      if (!entry || typeof entry !== 'object') {
+        errors.push({ key, error: 'consent must be an object' });
+      } else if (entry.templateId != null && (typeof entry.templateId !== 'string' || entry.templateId === '')) {
+        errors.push({ key, error: 'templateId must be a non-empty string' });
+      } else if (typeof entry.status !== 'boolean') {
+        errors.push({ key, error: 'status must be a boolean' });
+      } else {
+        decisions.push({ templateId: entry.templateId ?? key, status: entry.status });
+      }
+    });
+    const result: UsercentricsConsentWriteResult = { accepted: decisions.length, errors };
+    return { decisions, result };
+  }
+
+  private unwrapConsents(consents: Record<string, UsercentricsConsent> | UsercentricsConsentPayload): Record<string, UsercentricsConsent> {
+    const payload = consents as UsercentricsConsentPayload;
+    if (payload.consents && typeof payload.consents === 'object') {
+      return payload.consents;
+    }
+    // Flat payloads carry the call options next to the entries, as on Android they are not consents
+    const entries: Record<string, UsercentricsConsent> = {};
+    Object.keys(consents).forEach(key => {
+      if (!CONSENT_OPTION_KEYS.includes(key)) {
+        entries[key] = (consents as Record<string, UsercentricsConsent>)[key];
+      }
+    });
+    return entries;
+  }
+
+  private emitConsentChanges(consents: UsercentricsConsent[]) {
+    const changes: UsercentricsConsentChange[] = [];
+    consents.forEach(c => {
+      const previous = this.lastStatuses.get(c.templateId);
+      if (previous !== c.status) {
+        changes.push({ templateId: c.templateId, oldStatus: previous ?? null, newStatus: c.status });
+      }
+      this.lastStatuses.set(c.templateId, c.status);
+    });
+    this.notifyConsentChanges(changes);
+  }
+
+  private notifyConsentChanges(changes: UsercentricsConsentChange[]) {
+    if (changes.length === 0) {
+      return;
+    }
+    this.notifyListeners('consentChanged', { seq: ++this.consentSeq, changes });
   }
 
   private convertConsents(consents: any[]): UsercentricsConsent[] {